@@ -0,0 +1,90 @@
+package com.rag.apigateway.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the message route rewrite done by the built-in RewritePath filter against
+ * {@link SegmentRewritePathFilter}, both for the path computation alone and for the whole filter.
+ * The filter benchmarks include creating the exchange, measured on its own by {@link #createExchange}.
+ * Run with the gc profiler to see allocation per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PathRewriteBenchmark {
+
+    private static final String PATH = "/api/v1/sessions/6f1c2a9e-3b7d-4c55-9a0e-2d4b8f7e1c3a/messages/recent";
+    private static final String REGEXP = "/api/v1/sessions/(?<sessionId>[^/]+)/messages/(?<segment>.*)";
+    private static final String REPLACEMENT = "/messages/${sessionId}/${segment}";
+    private static final String SOURCE = "/api/v1/sessions/{sessionId}/messages/{*segment}";
+    private static final String TARGET = "/messages/{sessionId}/{segment}";
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    private Pattern pattern;
+    private PathTemplateRewriter rewriter;
+    private GatewayFilter rewritePathFilter;
+    private GatewayFilter segmentRewritePathFilter;
+
+    @Setup
+    public void setUp() {
+        pattern = Pattern.compile(REGEXP);
+        rewriter = PathTemplateRewriter.compile(SOURCE, TARGET);
+
+        RewritePathGatewayFilterFactory.Config config = new RewritePathGatewayFilterFactory.Config()
+                .setRegexp(REGEXP)
+                .setReplacement(REPLACEMENT);
+        rewritePathFilter = new RewritePathGatewayFilterFactory().apply(config);
+        segmentRewritePathFilter = new SegmentRewritePathFilter().apply(SegmentRewritePathFilter.Config.of(SOURCE, TARGET));
+
+        String expected = pattern.matcher(PATH).replaceAll(REPLACEMENT);
+        if (!expected.equals(rewriter.rewrite(PATH))) {
+            throw new IllegalStateException("Rewriters disagree on " + PATH);
+        }
+    }
+
+    @Benchmark
+    public String regexReplace() {
+        return pattern.matcher(PATH).replaceAll(REPLACEMENT);
+    }
+
+    @Benchmark
+    public String templateRewrite() {
+        return rewriter.rewrite(PATH);
+    }
+
+    @Benchmark
+    public ServerWebExchange createExchange() {
+        return exchange();
+    }
+
+    @Benchmark
+    public Void rewritePathFilter() {
+        return rewritePathFilter.filter(exchange(), CHAIN).block();
+    }
+
+    @Benchmark
+    public Void segmentRewritePathFilter() {
+        return segmentRewritePathFilter.filter(exchange(), CHAIN).block();
+    }
+
+    private static ServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+    }
+}
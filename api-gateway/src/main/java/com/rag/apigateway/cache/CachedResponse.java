@@ -0,0 +1,10 @@
+package com.rag.apigateway.cache;
+
+import org.springframework.http.MediaType;
+
+/**
+ * A successful GET response kept by the gateway, with the generation of its user's cache at the
+ * time the request started
+ */
+public record CachedResponse(byte[] body, MediaType contentType, String etag, long generation) {
+}
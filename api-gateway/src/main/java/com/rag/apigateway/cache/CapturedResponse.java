@@ -0,0 +1,10 @@
+package com.rag.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * An upstream response captured by the leader of a coalesced request so followers can replay it
+ */
+public record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+}
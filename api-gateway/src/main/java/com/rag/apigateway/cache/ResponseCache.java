@@ -0,0 +1,143 @@
+package com.rag.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user cache of GET responses, bounded by total body size.
+ * <p>
+ * Invalidation does not search for a user's entries: every user has a generation counter that is
+ * bumped on invalidation, and an entry is only served while its generation is current. A request
+ * reads the generation before going upstream, so a response that raced with an invalidation is
+ * stored already outdated. Generations are kept longer than entries, so an evicted counter never
+ * brings an old entry back.
+ */
+@Component
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> responses;
+    private final Cache<String, AtomicLong> generations;
+
+    public ResponseCache(@Value("${gateway.response-cache.maximum-bytes:67108864}") long maximumBytes,
+                         @Value("${gateway.response-cache.ttl:60s}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(ttl.multipliedBy(2))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.responses");
+    }
+
+    /**
+     * Reads the current generation of a user's cache; pass it to {@link #put} once the response arrives
+     *
+     * @param userId the user ID
+     * @return the generation
+     */
+    public long generation(String userId) {
+        return generations.get(userId, key -> new AtomicLong()).get();
+    }
+
+    /**
+     * Looks up a response that is still current
+     *
+     * @param userId     the user ID
+     * @param requestKey the route and request path with query
+     * @return the cached response, or null
+     */
+    public CachedResponse get(String userId, String requestKey) {
+        String key = key(userId, requestKey);
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.generation() != generation(userId)) {
+            responses.invalidate(key);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Stores a response
+     *
+     * @param userId     the user ID
+     * @param requestKey the route and request path with query
+     * @param response   the response, tagged with the generation read when the request started
+     */
+    public void put(String userId, String requestKey, CachedResponse response) {
+        if (response.generation() == generation(userId)) {
+            responses.put(key(userId, requestKey), response);
+        }
+    }
+
+    /**
+     * Makes every cached response of a user stale
+     *
+     * @param userId the user ID
+     */
+    public void invalidateUser(String userId) {
+        generations.get(userId, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Computes a strong ETag from the response body
+     *
+     * @param body the response body
+     * @return the quoted ETag
+     */
+    public static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Checks an If-None-Match header against an ETag, using weak comparison as RFC 9110 requires
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param etag        the current ETag
+     * @return true if the client already has the current representation
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(String userId, String requestKey) {
+        return userId + '\u0000' + requestKey;
+    }
+}
@@ -0,0 +1,41 @@
+package com.rag.apigateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Key material used by the gateway to verify JWTs issued by the auth service.
+ * Several keys can be active at once so the signing secret can be rotated without downtime:
+ * add the new key first, switch the auth service over, then remove the old key once its tokens expire.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.auth.jwt")
+public class JwtProperties {
+
+    /**
+     * Verify JWTs locally. When disabled every credential is validated by the auth service.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Active verification keys, tried in order.
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    /**
+     * Tolerated clock difference between the gateway and the auth service.
+     */
+    private Duration clockSkew = Duration.ofSeconds(30);
+
+    @Data
+    public static class Key {
+        private String id;
+        private String secret;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rag.apigateway.config;
+
+import com.rag.apigateway.event.CredentialEvent;
+import com.rag.apigateway.event.UserScopedEvent;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.kafka.clients.consumer.ConsumerConfig.*;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${spring.kafka.consumer.auto-offset-reset}")
+    private String autoOffsetReset;
+
+    @Bean
+    public ConsumerFactory<String, CredentialEvent> credentialEventConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(GROUP_ID_CONFIG, groupId);
+        props.put(AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+
+        // Use ErrorHandlingDeserializer for both key and value deserializers
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+
+        // Set the delegate deserializers for ErrorHandlingDeserializer
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+
+        // Configure JsonDeserializer
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, CredentialEvent.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.rag.apigateway.event,com.rag.authservice.event");
+        props.put(JsonDeserializer.TYPE_MAPPINGS, "com.rag.authservice.event.CredentialEvent:com.rag.apigateway.event.CredentialEvent");
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CredentialEvent> credentialEventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CredentialEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(credentialEventConsumerFactory());
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, UserScopedEvent> userEventConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(GROUP_ID_CONFIG, groupId);
+        props.put(AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+
+        // Use ErrorHandlingDeserializer for both key and value deserializers
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+
+        // Set the delegate deserializers for ErrorHandlingDeserializer
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+
+        // Session and message events are both read into UserScopedEvent, whatever their type header says
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, UserScopedEvent.class.getName());
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserScopedEvent> userEventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, UserScopedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(userEventConsumerFactory());
+        factory.setBatchListener(true);
+        return factory;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rag.apigateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user, per-route request limits enforced by the gateway.
+ * Routes without an entry under {@code routes} use {@code default-limit}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Enforce the limits. When disabled every request is let through without headers.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on the number of user/route buckets held in memory.
+     */
+    private long maximumBuckets = 100_000;
+
+    /**
+     * Buckets not used for this long are dropped; a dropped bucket comes back full.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Limit defaultLimit = new Limit();
+
+    /**
+     * Limits by route id.
+     */
+    private Map<String, Limit> routes = new HashMap<>();
+
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaultLimit);
+    }
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Requests replenished per period.
+         */
+        private int rate = 60;
+
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * Requests that can be made back to back once the bucket is full.
+         */
+        private int burst = 60;
+    }
+}
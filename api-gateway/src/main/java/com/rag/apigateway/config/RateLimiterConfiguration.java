@@ -1,24 +0,0 @@
-package com.rag.apigateway.config;
-
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-import java.time.Duration;
-
-@Configuration
-public class RateLimiterConfiguration {
-
-    @Bean
-    public RateLimiterRegistry rateLimiterRegistry() {
-        RateLimiterConfig config = RateLimiterConfig.custom()
-                .limitRefreshPeriod(Duration.ofMinutes(1))
-                .limitForPeriod(60) // 60 requests per minute
-                .timeoutDuration(Duration.ofMillis(100))
-                .build();
-
-        return RateLimiterRegistry.of(config);
-    }
-}
\ No newline at end of file
@@ -1,6 +1,15 @@
 package com.rag.apigateway.config;
 
 import com.rag.apigateway.filter.AuthenticationFilter;
+import com.rag.apigateway.filter.ConcurrencyLimitFilter;
+import com.rag.apigateway.filter.ConversationAggregationFilter;
+import com.rag.apigateway.filter.RateLimitFilter;
+import com.rag.apigateway.filter.RequestCoalescingFilter;
+import com.rag.apigateway.filter.ResponseCacheFilter;
+import com.rag.apigateway.filter.SegmentRewritePathFilter;
+import com.rag.apigateway.loadbalancer.HedgingFilter;
+import com.rag.apigateway.loadshedding.LoadSheddingFilter;
+import com.rag.apigateway.loadshedding.PriorityTier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
@@ -18,6 +27,24 @@ public class RouteConfig {
     @Autowired
     private AuthenticationFilter authFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private RequestCoalescingFilter coalescingFilter;
+
+    @Autowired
+    private ConversationAggregationFilter aggregationFilter;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private SegmentRewritePathFilter rewritePathFilter;
+
     @Bean
     public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
         return builder.routes()
@@ -25,14 +52,21 @@ public class RouteConfig {
                 .route("auth-service-v1", r -> r
                         .path("/api/v1/auth/**")
                         .filters(f -> f
-                                .rewritePath("/api/v1/auth/(?<segment>.*)", "/api/auth/${segment}")
+                                .filter(rewritePathFilter.apply(SegmentRewritePathFilter.Config.of(
+                                        "/api/v1/auth/{*segment}", "/api/auth/{segment}")))
                         )
+                        // Logins and token refreshes are never shed
+                        .metadata(LoadSheddingFilter.READ_PRIORITY_METADATA, PriorityTier.CRITICAL)
+                        .metadata(LoadSheddingFilter.WRITE_PRIORITY_METADATA, PriorityTier.CRITICAL)
                         .uri("lb://auth-service")
                 )
 
                 // Auth Service Route - direct path without v1 prefix
                 .route("auth-service-direct", r -> r
                         .path("/api/auth/**")
+                        // Logins and token refreshes are never shed
+                        .metadata(LoadSheddingFilter.READ_PRIORITY_METADATA, PriorityTier.CRITICAL)
+                        .metadata(LoadSheddingFilter.WRITE_PRIORITY_METADATA, PriorityTier.CRITICAL)
                         .uri("lb://auth-service")
                 )
 
@@ -41,7 +75,15 @@ public class RouteConfig {
                         .path("/api/sessions/**", "/api/sessions")
                         .filters(f -> f
                                 .filter(authFilter.apply(new AuthenticationFilter.Config()))
+                                .filter(rateLimitFilter.apply(RateLimitFilter.Config.forRoute("session-service")))
+                                .filter(responseCacheFilter.apply(ResponseCacheFilter.Config.forRoute("session-service")))
+                                .filter(coalescingFilter.apply(RequestCoalescingFilter.Config.forRoute("session-service")))
+                                .filter(concurrencyLimitFilter.apply(ConcurrencyLimitFilter.Config.forRoute("session-service")))
                         )
+                        // Reads are idempotent, so slow GETs may be hedged to a second instance
+                        .metadata(HedgingFilter.HEDGE_METADATA, true)
+                        // Session lists are polled by clients and are the first to go under overload
+                        .metadata(LoadSheddingFilter.READ_PRIORITY_METADATA, PriorityTier.LOW)
                         .uri("lb://session-service")
                 )
 
@@ -49,10 +91,18 @@ public class RouteConfig {
                 .route("message-service", r -> r
                         .path("/api/v1/sessions/*/messages/**")
                         .filters(f -> f
-                                .rewritePath("/api/v1/sessions/(?<sessionId>[^/]+)/messages/(?<segment>.*)",
-                                        "/messages/${sessionId}/${segment}")
+                                .filter(rewritePathFilter.apply(SegmentRewritePathFilter.Config.of(
+                                        "/api/v1/sessions/{sessionId}/messages/{*segment}", "/messages/{sessionId}/{segment}")))
                                 .filter(authFilter.apply(new AuthenticationFilter.Config()))
+                                .filter(rateLimitFilter.apply(RateLimitFilter.Config.forRoute("message-service")))
+                                .filter(responseCacheFilter.apply(ResponseCacheFilter.Config.forRoute("message-service")))
+                                .filter(coalescingFilter.apply(RequestCoalescingFilter.Config.forRoute("message-service")))
+                                .filter(concurrencyLimitFilter.apply(ConcurrencyLimitFilter.Config.forRoute("message-service")))
                         )
+                        // Reads are idempotent, so slow GETs may be hedged to a second instance
+                        .metadata(HedgingFilter.HEDGE_METADATA, true)
+                        // Message writes are the core of a conversation and are never shed
+                        .metadata(LoadSheddingFilter.WRITE_PRIORITY_METADATA, PriorityTier.CRITICAL)
                         .uri("lb://message-service")
                 )
 
@@ -60,12 +110,26 @@ public class RouteConfig {
                 .route("context-service", r -> r
                         .path("/api/v1/messages/*/context/**")
                         .filters(f -> f
-                                .rewritePath("/api/v1/messages/(?<messageId>[^/]+)/context/(?<segment>.*)",
-                                        "/context/${messageId}/${segment}")
+                                .filter(rewritePathFilter.apply(SegmentRewritePathFilter.Config.of(
+                                        "/api/v1/messages/{messageId}/context/{*segment}", "/context/{messageId}/{segment}")))
                                 .filter(authFilter.apply(new AuthenticationFilter.Config()))
+                                .filter(rateLimitFilter.apply(RateLimitFilter.Config.forRoute("context-service")))
+                                .filter(concurrencyLimitFilter.apply(ConcurrencyLimitFilter.Config.forRoute("context-service")))
                         )
                         .uri("lb://context-service")
                 )
+
+                // Conversation view - session, messages and context in one call, answered by the gateway itself
+                .route("conversation-aggregation", r -> r
+                        .path("/api/v1/conversations/{sessionId}")
+                        .and().method("GET")
+                        .filters(f -> f
+                                .filter(authFilter.apply(new AuthenticationFilter.Config()))
+                                .filter(rateLimitFilter.apply(RateLimitFilter.Config.forRoute("conversation-aggregation")))
+                                .filter(aggregationFilter.apply(new ConversationAggregationFilter.Config()))
+                        )
+                        .uri("no://op")
+                )
                 .build();
     }
 }
\ No newline at end of file
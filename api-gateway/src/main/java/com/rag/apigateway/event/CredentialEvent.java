@@ -0,0 +1,17 @@
+package com.rag.apigateway.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialEvent {
+    private CredentialEventType type;
+    private UUID userId;
+    private OffsetDateTime timestamp;
+}
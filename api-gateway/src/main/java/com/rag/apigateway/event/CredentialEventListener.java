@@ -0,0 +1,45 @@
+package com.rag.apigateway.event;
+
+import com.rag.apigateway.security.CredentialCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialEventListener {
+
+    private final CredentialCache credentialCache;
+
+    // No groupId here: the factory's per-instance group makes this a broadcast to every gateway
+    @KafkaListener(topics = "credential-events", containerFactory = "credentialEventListenerContainerFactory")
+    public void handleCredentialEvents(@Payload List<CredentialEvent> events) {
+        if (events == null) {
+            log.warn("Received null events list");
+            return;
+        }
+
+        for (CredentialEvent event : events) {
+            try {
+                if (event == null || event.getUserId() == null) {
+                    log.warn("Received credential event without user ID. Skipping.");
+                    continue;
+                }
+
+                if (event.getType() == CredentialEventType.API_KEY_REVOKED) {
+                    Instant revokedAt = event.getTimestamp() != null ? event.getTimestamp().toInstant() : Instant.now();
+                    credentialCache.revokeUser(event.getUserId().toString(), revokedAt);
+                    log.info("Evicted cached credentials for revoked user: {}", event.getUserId());
+                }
+            } catch (Exception e) {
+                log.error("Error processing credential event: {}", event, e);
+            }
+        }
+    }
+}
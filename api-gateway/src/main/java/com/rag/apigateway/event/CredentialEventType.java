@@ -0,0 +1,5 @@
+package com.rag.apigateway.event;
+
+public enum CredentialEventType {
+    API_KEY_REVOKED
+}
@@ -0,0 +1,36 @@
+package com.rag.apigateway.event;
+
+import com.rag.apigateway.cache.ResponseCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventListener {
+
+    private final ResponseCache responseCache;
+
+    // No groupId here: the factory's per-instance group makes this a broadcast to every gateway
+    @KafkaListener(topics = {"session-events", "message-events"}, containerFactory = "userEventListenerContainerFactory")
+    public void handleUserEvents(@Payload List<UserScopedEvent> events) {
+        if (events == null) {
+            log.warn("Received null events list");
+            return;
+        }
+
+        // Several events for the same user only need one invalidation
+        events.stream()
+                .filter(event -> event != null && event.getUserId() != null)
+                .map(event -> event.getUserId().toString())
+                .distinct()
+                .forEach(responseCache::invalidateUser);
+
+        log.debug("Invalidated cached responses for batch of {} events", events.size());
+    }
+}
@@ -0,0 +1,22 @@
+package com.rag.apigateway.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The fields the gateway needs from session and message events. Both event types are read into
+ * this class so the gateway does not depend on the services' event classes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserScopedEvent {
+    private String type;
+    private UUID sessionId;
+    private UUID userId;
+}
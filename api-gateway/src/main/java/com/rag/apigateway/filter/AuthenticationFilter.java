@@ -1,35 +1,59 @@
 package com.rag.apigateway.filter;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.rag.apigateway.security.AuthServiceClient;
+import com.rag.apigateway.security.AuthServiceUnavailableException;
+import com.rag.apigateway.security.ClientAddressResolver;
+import com.rag.apigateway.security.ClientFailureTracker;
+import com.rag.apigateway.security.CredentialCache;
+import com.rag.apigateway.security.JwtVerifier;
+import com.rag.apigateway.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @Component
 @Slf4j
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
-    // Create logger field explicitly if Lombok is not working properly
-    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AuthenticationFilter.class);
-
-    private final WebClient.Builder webClientBuilder;
+    private final AuthServiceClient authServiceClient;
+    private final JwtVerifier jwtVerifier;
+    private final CredentialCache credentialCache;
+    private final ClientFailureTracker failureTracker;
+    private final ClientAddressResolver clientAddressResolver;
 
-    public AuthenticationFilter(WebClient.Builder webClientBuilder) {
+    public AuthenticationFilter(AuthServiceClient authServiceClient, JwtVerifier jwtVerifier,
+                                CredentialCache credentialCache, ClientFailureTracker failureTracker,
+                                ClientAddressResolver clientAddressResolver) {
         super(Config.class);
-        this.webClientBuilder = webClientBuilder;
+        this.authServiceClient = authServiceClient;
+        this.jwtVerifier = jwtVerifier;
+        this.credentialCache = credentialCache;
+        this.failureTracker = failureTracker;
+        this.clientAddressResolver = clientAddressResolver;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
+            String clientAddress = clientAddressResolver.resolve(exchange.getRequest());
+            Duration retryAfter = failureTracker.retryAfter(clientAddress);
+            if (retryAfter != null) {
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, retryAfter.toSeconds())));
+                return onError(exchange, "Too many failed authentication attempts", HttpStatus.TOO_MANY_REQUESTS);
+            }
+
+            // Preflights and probes simply carry no credential; only wrong credentials count as failures
             if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
                 return onError(exchange, "Missing Authorization header", HttpStatus.UNAUTHORIZED);
             }
@@ -37,37 +61,92 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
             String token = authHeader.replace("Bearer ", "");
 
-            return validateToken(token)
-                    .flatMap(userId -> {
-                        // Add the user ID to the request headers
-                        ServerWebExchange modifiedExchange = exchange.mutate()
-                                .request(exchange.getRequest().mutate()
-                                        .header("X-User-ID", userId)
-                                        .build())
-                                .build();
+            String credentialDigest = credentialCache.digest(token);
+            if (credentialCache.isKnownInvalid(credentialDigest)) {
+                failureTracker.recordFailure(clientAddress);
+                return onError(exchange, "Invalid token", HttpStatus.FORBIDDEN);
+            }
 
-                        return chain.filter(modifiedExchange);
-                    })
+            String cachedUserId = credentialCache.getUserId(credentialDigest);
+            Mono<String> userIdMono = cachedUserId != null
+                    ? Mono.just(cachedUserId)
+                    : resolveUserId(token, credentialDigest);
+
+            return userIdMono
                     .onErrorResume(error -> {
-                        log.error("Authentication error: {}", error.getMessage());
-                        return onError(exchange, "Invalid token", HttpStatus.FORBIDDEN);
+                        if (isRejection(error)) {
+                            log.debug("Credential rejected: {}", error.getMessage());
+                            credentialCache.recordInvalid(credentialDigest);
+                        } else if (error instanceof AuthServiceUnavailableException) {
+                            return Mono.error(error);
+                        } else {
+                            log.error("Authentication error: {}", error.getMessage());
+                        }
+                        return Mono.empty();
+                    })
+                    .singleOptional()
+                    .flatMap(userId -> userId
+                            .map(id -> {
+                                // Add the user ID to the request headers
+                                ServerWebExchange modifiedExchange = exchange.mutate()
+                                        .request(exchange.getRequest().mutate()
+                                                .header("X-User-ID", id)
+                                                .build())
+                                        .build();
+
+                                return chain.filter(modifiedExchange);
+                            })
+                            .orElseGet(() -> {
+                                failureTracker.recordFailure(clientAddress);
+                                return onError(exchange, "Invalid token", HttpStatus.FORBIDDEN);
+                            }))
+                    // The credential may well be valid, so neither reject it nor count it against the client
+                    .onErrorResume(AuthServiceUnavailableException.class, error -> {
+                        log.warn("Auth service unavailable: {}", error.getCause().getMessage());
+                        return onError(exchange, "Auth service unavailable", HttpStatus.SERVICE_UNAVAILABLE);
                     });
         };
     }
 
-    @CircuitBreaker(name = "authService", fallbackMethod = "validateTokenFallback")
-    private Mono<String> validateToken(String token) {
-        return webClientBuilder.build()
-                .get()
-                .uri("http://auth-service/api/auth/validate?token=" + token)
-                .retrieve()
-                .bodyToMono(String.class)
-                .doOnNext(userId -> log.info("Successfully validated token for user: {}", userId));
+    /**
+     * Resolves the user ID for a credential that is not cached yet and caches the result
+     */
+    private Mono<String> resolveUserId(String token, String credentialDigest) {
+        Instant validatedAt = Instant.now();
+        return verify(token)
+                .doOnNext(verified -> credentialCache.put(credentialDigest, verified, validatedAt))
+                .map(VerifiedToken::userId)
+                .switchIfEmpty(Mono.fromRunnable(() -> credentialCache.recordInvalid(credentialDigest)));
+    }
+
+    /**
+     * Validates a credential. JWTs are verified locally; only other credentials, or JWTs when
+     * local verification is disabled, are sent to the auth service.
+     */
+    private Mono<VerifiedToken> verify(String token) {
+        if (!JwtVerifier.isJwt(token)) {
+            return authServiceClient.validateApiKey(token)
+                    .map(userId -> new VerifiedToken(userId, null, null));
+        }
+        if (jwtVerifier.isEnabled()) {
+            return Mono.fromCallable(() -> jwtVerifier.verify(token))
+                    .filter(verified -> !credentialCache.isRevoked(verified.userId(), verified.issuedAt()));
+        }
+        // Without a readable exp claim the token expires "now", which keeps it out of the cache
+        return authServiceClient.validateToken(token)
+                .map(userId -> new VerifiedToken(userId, null,
+                        JwtVerifier.readExpiration(token).orElseGet(Instant::now)));
     }
 
-    private Mono<String> validateTokenFallback(String token, Throwable t) {
-        log.error("Auth service is down. Error: {}", t.getMessage());
-        return Mono.error(new RuntimeException("Auth service is not available"));
+    /**
+     * Tells a definitive rejection of the credential apart from the auth service being unavailable;
+     * only rejections may be cached or counted against the client
+     */
+    private static boolean isRejection(Throwable error) {
+        return error instanceof JwtException
+                || error instanceof WebClientResponseException.Unauthorized
+                || error instanceof WebClientResponseException.Forbidden
+                || error instanceof WebClientResponseException.BadRequest;
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
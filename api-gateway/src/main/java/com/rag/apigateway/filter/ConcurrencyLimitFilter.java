@@ -0,0 +1,82 @@
+package com.rag.apigateway.filter;
+
+import com.rag.apigateway.ratelimit.ConcurrencyLimiter;
+import com.rag.apigateway.ratelimit.VegasLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps the requests in flight to a route's downstream at its adaptive limit and answers the
+ * rest with an immediate 503, instead of letting them queue in the connection pool. Place it
+ * last on the route so requests answered by the gateway itself do not count.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends AbstractGatewayFilterFactory<ConcurrencyLimitFilter.Config> {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.limiter = limiter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected by the adaptive concurrency limiter")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!limiter.isEnabled()) {
+                return chain.filter(exchange);
+            }
+
+            VegasLimit limit = limiter.forRoute(config.getRouteId());
+            if (!limit.tryAcquire()) {
+                rejected.increment();
+                log.debug("Concurrency limit {} reached on route {}", limit.getLimit(), config.getRouteId());
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+                return exchange.getResponse().setComplete();
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limit.cancel();
+                            return;
+                        }
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                        limit.release(System.nanoTime() - start, dropped);
+                    });
+        };
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+
+        public static Config forRoute(String routeId) {
+            Config config = new Config();
+            config.setRouteId(routeId);
+            return config;
+        }
+    }
+}
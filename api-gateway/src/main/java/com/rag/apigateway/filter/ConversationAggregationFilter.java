@@ -0,0 +1,170 @@
+package com.rag.apigateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Serves {@code GET /api/v1/conversations/{sessionId}} by fetching the session, its messages and
+ * its context entries concurrently and returning them as one payload. This filter answers the
+ * request itself and never calls the rest of the chain.
+ * <p>
+ * Each branch has its own timeout. The session is required: if it cannot be read, the response
+ * carries that branch's status. Messages and context are optional: a failed branch is returned
+ * as null, listed under {@code errors}, and the payload is flagged {@code partial}.
+ */
+@Component
+@Slf4j
+public class ConversationAggregationFilter extends AbstractGatewayFilterFactory<ConversationAggregationFilter.Config> {
+
+    private static final String SESSION_ID_VARIABLE = "sessionId";
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final Duration sessionTimeout;
+    private final Duration messagesTimeout;
+    private final Duration contextTimeout;
+
+    public ConversationAggregationFilter(WebClient.Builder webClientBuilder,
+                                         ObjectMapper objectMapper,
+                                         @Value("${gateway.aggregation.timeouts.session:2s}") Duration sessionTimeout,
+                                         @Value("${gateway.aggregation.timeouts.messages:3s}") Duration messagesTimeout,
+                                         @Value("${gateway.aggregation.timeouts.context:3s}") Duration contextTimeout) {
+        super(Config.class);
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.sessionTimeout = sessionTimeout;
+        this.messagesTimeout = messagesTimeout;
+        this.contextTimeout = contextTimeout;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Map<String, String> variables = ServerWebExchangeUtils.getUriTemplateVariables(exchange);
+            String sessionId = variables.get(SESSION_ID_VARIABLE);
+            String userId = exchange.getRequest().getHeaders().getFirst("X-User-ID");
+            if (sessionId == null || userId == null) {
+                exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+                return exchange.getResponse().setComplete();
+            }
+
+            String page = exchange.getRequest().getQueryParams().getFirst("page");
+            String size = exchange.getRequest().getQueryParams().getFirst("size");
+
+            Mono<Branch> session = fetch("session", sessionTimeout, userId, uri -> uri
+                    .scheme("http").host("session-service")
+                    .path("/api/sessions/{id}")
+                    .build(sessionId));
+            Mono<Branch> messages = fetch("messages", messagesTimeout, userId, uri -> uri
+                    .scheme("http").host("message-service")
+                    .path("/api/v1/sessions/{id}/messages")
+                    .queryParamIfPresent("page", Optional.ofNullable(page))
+                    .queryParamIfPresent("size", Optional.ofNullable(size))
+                    .build(sessionId));
+            Mono<Branch> context = fetch("context", contextTimeout, userId, uri -> uri
+                    .scheme("http").host("context-service")
+                    .path("/api/v1/contexts")
+                    .queryParam("sessionId", sessionId)
+                    .build());
+
+            return Mono.zip(session, messages, context)
+                    .flatMap(branches -> write(exchange, branches.getT1(), branches.getT2(), branches.getT3()));
+        };
+    }
+
+    private Mono<Branch> fetch(String name, Duration timeout, String userId, Function<UriBuilder, URI> uri) {
+        return webClient.get()
+                .uri(uri)
+                .header("X-User-ID", userId)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(body -> new Branch(name, body, null, HttpStatus.OK))
+                .defaultIfEmpty(new Branch(name, null, null, HttpStatus.OK))
+                .onErrorResume(error -> {
+                    log.warn("Conversation branch {} failed: {}", name, error.toString());
+                    return Mono.just(failed(name, error));
+                });
+    }
+
+    private static Branch failed(String name, Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return new Branch(name, null, "Upstream returned " + responseException.getStatusCode().value(),
+                    responseException.getStatusCode());
+        }
+        if (error instanceof TimeoutException) {
+            return new Branch(name, null, "Timed out", HttpStatus.GATEWAY_TIMEOUT);
+        }
+        return new Branch(name, null, "Unavailable", HttpStatus.BAD_GATEWAY);
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, Branch session, Branch messages, Branch context) {
+        ServerHttpResponse response = exchange.getResponse();
+        ObjectNode payload = objectMapper.createObjectNode();
+        ObjectNode errors = objectMapper.createObjectNode();
+
+        if (session.error() != null) {
+            response.setStatusCode(session.status());
+            errors.put(session.name(), session.error());
+            payload.set("errors", errors);
+            return writeJson(response, payload);
+        }
+
+        for (Branch branch : new Branch[]{session, messages, context}) {
+            payload.set(branch.name(), branch.body());
+            if (branch.error() != null) {
+                errors.put(branch.name(), branch.error());
+            }
+        }
+        payload.put("partial", !errors.isEmpty());
+        if (!errors.isEmpty()) {
+            payload.set("errors", errors);
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        return writeJson(response, payload);
+    }
+
+    private Mono<Void> writeJson(ServerHttpResponse response, JsonNode payload) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    private record Branch(String name, JsonNode body, String error, HttpStatusCode status) {
+    }
+
+    public static class Config {
+        // Configuration properties can go here
+    }
+}
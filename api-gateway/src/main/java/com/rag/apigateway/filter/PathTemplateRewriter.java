@@ -0,0 +1,151 @@
+package com.rag.apigateway.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A path rewrite compiled from a pair of templates, e.g. {@code /api/v1/sessions/{sessionId}/messages/{*segment}}
+ * to {@code /messages/{sessionId}/{segment}}.
+ * <p>
+ * In the source template, {@code {name}} captures one non-empty path segment and {@code {*name}},
+ * which must come last, captures the rest of the path, possibly empty. Matching walks the path
+ * once, comparing literals in place and remembering captures as index pairs, and the result is
+ * built with a single right-sized {@link StringBuilder}. No regex matcher or substring is created.
+ */
+public final class PathTemplateRewriter {
+
+    private final String[] sourceLiterals;
+    private final boolean[] catchAll;
+    private final String[] targetLiterals;
+    private final int[] targetCaptures;
+
+    private PathTemplateRewriter(String[] sourceLiterals, boolean[] catchAll,
+                                 String[] targetLiterals, int[] targetCaptures) {
+        this.sourceLiterals = sourceLiterals;
+        this.catchAll = catchAll;
+        this.targetLiterals = targetLiterals;
+        this.targetCaptures = targetCaptures;
+    }
+
+    /**
+     * Compiles a source and a target template
+     *
+     * @param source the template the request path must match
+     * @param target the template of the rewritten path, referring to captures of the source
+     * @return the rewriter
+     * @throws IllegalArgumentException if a template is malformed or refers to an unknown capture
+     */
+    public static PathTemplateRewriter compile(String source, String target) {
+        List<String> sourceParts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        split(source, sourceParts, names);
+
+        boolean[] catchAll = new boolean[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            String following = sourceParts.get(i + 1);
+            if (name.startsWith("*")) {
+                if (i != names.size() - 1 || !following.isEmpty()) {
+                    throw new IllegalArgumentException("A {*capture} must end the template: " + source);
+                }
+                if (!sourceParts.get(i).endsWith("/")) {
+                    throw new IllegalArgumentException("A {*capture} must follow a '/': " + source);
+                }
+                catchAll[i] = true;
+                names.set(i, name.substring(1));
+            } else if (!following.isEmpty() && following.charAt(0) != '/') {
+                throw new IllegalArgumentException("A {capture} must be a whole path segment: " + source);
+            }
+        }
+
+        List<String> targetParts = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        split(target, targetParts, references);
+        int[] targetCaptures = new int[references.size()];
+        for (int i = 0; i < references.size(); i++) {
+            targetCaptures[i] = names.indexOf(references.get(i));
+            if (targetCaptures[i] < 0) {
+                throw new IllegalArgumentException("Unknown capture {" + references.get(i) + "} in " + target);
+            }
+        }
+
+        return new PathTemplateRewriter(sourceParts.toArray(String[]::new), catchAll,
+                targetParts.toArray(String[]::new), targetCaptures);
+    }
+
+    /**
+     * Rewrites a raw request path
+     *
+     * @param path the raw path, without query
+     * @return the rewritten path, or null if the path does not match the source template
+     */
+    public String rewrite(String path) {
+        int captureCount = catchAll.length;
+        // Start and end of each capture, interleaved
+        int[] captures = new int[captureCount * 2];
+
+        int position = 0;
+        for (int i = 0; i <= captureCount; i++) {
+            String literal = sourceLiterals[i];
+            if (!path.startsWith(literal, position)) {
+                return null;
+            }
+            position += literal.length();
+            if (i == captureCount) {
+                break;
+            }
+            int end = catchAll[i] ? path.length() : segmentEnd(path, position);
+            if (end == position && !catchAll[i]) {
+                return null;
+            }
+            captures[2 * i] = position;
+            captures[2 * i + 1] = end;
+            position = end;
+        }
+        if (position != path.length()) {
+            return null;
+        }
+
+        int length = 0;
+        for (String literal : targetLiterals) {
+            length += literal.length();
+        }
+        for (int capture : targetCaptures) {
+            length += captures[2 * capture + 1] - captures[2 * capture];
+        }
+
+        StringBuilder rewritten = new StringBuilder(length);
+        for (int i = 0; i < targetCaptures.length; i++) {
+            int capture = targetCaptures[i];
+            rewritten.append(targetLiterals[i]).append(path, captures[2 * capture], captures[2 * capture + 1]);
+        }
+        return rewritten.append(targetLiterals[targetCaptures.length]).toString();
+    }
+
+    private static int segmentEnd(String path, int from) {
+        int slash = path.indexOf('/', from);
+        return slash < 0 ? path.length() : slash;
+    }
+
+    /**
+     * Splits a template into the literals around its {...} placeholders, so there is always one
+     * more literal than placeholders
+     */
+    private static void split(String template, List<String> literals, List<String> placeholders) {
+        int position = 0;
+        while (true) {
+            int open = template.indexOf('{', position);
+            if (open < 0) {
+                literals.add(template.substring(position));
+                return;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0 || close == open + 1) {
+                throw new IllegalArgumentException("Malformed placeholder in " + template);
+            }
+            literals.add(template.substring(position, open));
+            placeholders.add(template.substring(open + 1, close));
+            position = close + 1;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.rag.apigateway.filter;
+
+import com.rag.apigateway.config.RateLimitProperties;
+import com.rag.apigateway.ratelimit.RateLimitDecision;
+import com.rag.apigateway.ratelimit.UserRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Enforces per-user limits on a route. Must run after {@link AuthenticationFilter} so the
+ * X-User-ID header is set; requests without it are limited by client address instead.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final UserRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(UserRateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Counter rejected = Counter.builder("gateway.ratelimit.rejected")
+                .description("Requests rejected by the per-user rate limiter")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (!properties.isEnabled()) {
+                return chain.filter(exchange);
+            }
+
+            String caller = exchange.getRequest().getHeaders().getFirst("X-User-ID");
+            if (caller == null) {
+                InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+                caller = remoteAddress != null && remoteAddress.getAddress() != null
+                        ? "ip:" + remoteAddress.getAddress().getHostAddress()
+                        : "ip:unknown";
+            }
+
+            RateLimitDecision decision = rateLimiter.tryAcquire(config.getRouteId(), caller);
+
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set(LIMIT_HEADER, String.valueOf(decision.limit()));
+            headers.set(REMAINING_HEADER, String.valueOf(decision.remaining()));
+            headers.set(RESET_HEADER, String.valueOf(toSeconds(decision.resetAfter())));
+
+            if (!decision.allowed()) {
+                rejected.increment();
+                log.debug("Rate limit exceeded on route {} for {}", config.getRouteId(), caller);
+                headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(decision.retryAfter())));
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return exchange.getResponse().setComplete();
+            }
+
+            return chain.filter(exchange);
+        };
+    }
+
+    private static long toSeconds(Duration duration) {
+        // Round up so clients never retry before the bucket has room
+        return Math.max(0, (duration.toMillis() + 999) / 1000);
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+
+        public static Config forRoute(String routeId) {
+            Config config = new Config();
+            config.setRouteId(routeId);
+            return config;
+        }
+    }
+}
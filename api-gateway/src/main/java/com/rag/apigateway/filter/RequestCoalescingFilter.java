@@ -0,0 +1,169 @@
+package com.rag.apigateway.filter;
+
+import com.rag.apigateway.cache.CapturedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight for GETs: while a request is in flight, identical requests (same method,
+ * rewritten path, query and X-User-ID) wait for it and replay its response instead of going
+ * upstream. Must run after {@link AuthenticationFilter} and any path rewrite.
+ * <p>
+ * The in-flight table is bounded; once full, requests simply go upstream on their own. If the
+ * leader produces no shareable response (error, cancellation, oversized body), every follower
+ * falls back to its own upstream call.
+ */
+@Component
+@Slf4j
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    // Never copied from the leader: hop-by-hop headers, and the leader's own rate limit state
+    private static final Set<String> UNCOPIED_HEADERS = Set.of(
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONNECTION.toLowerCase(),
+            RateLimitFilter.LIMIT_HEADER.toLowerCase(), RateLimitFilter.REMAINING_HEADER.toLowerCase(),
+            RateLimitFilter.RESET_HEADER.toLowerCase());
+
+    private final ConcurrentMap<String, Mono<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> enabledRoutes;
+    private final int maximumInFlight;
+    private final int maximumBodyBytes;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescingFilter(@Value("${gateway.coalescing.routes:}") Set<String> enabledRoutes,
+                                   @Value("${gateway.coalescing.maximum-in-flight:10000}") int maximumInFlight,
+                                   @Value("${gateway.coalescing.maximum-body-bytes:1048576}") int maximumBodyBytes,
+                                   MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.enabledRoutes = enabledRoutes;
+        this.maximumInFlight = maximumInFlight;
+        this.maximumBodyBytes = maximumBodyBytes;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, ConcurrentMap::size)
+                .description("Distinct GETs currently being coalesced")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Counter coalesced = Counter.builder("gateway.coalescing.coalesced")
+                .description("Requests answered with the response of an identical in-flight request")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !enabledRoutes.contains(config.getRouteId())) {
+                return chain.filter(exchange);
+            }
+
+            String key = request.getMethod().name() + ' ' + request.getURI().getRawPath() + '?'
+                    + request.getURI().getRawQuery() + ' ' + request.getHeaders().getFirst("X-User-ID");
+
+            Mono<CapturedResponse> existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return follow(existing, exchange, chain);
+            }
+            if (inFlight.size() >= maximumInFlight) {
+                return chain.filter(exchange);
+            }
+
+            Sinks.One<CapturedResponse> sink = Sinks.one();
+            Mono<CapturedResponse> shared = sink.asMono();
+            existing = inFlight.putIfAbsent(key, shared);
+            if (existing != null) {
+                coalesced.increment();
+                return follow(existing, exchange, chain);
+            }
+
+            return lead(sink, exchange, chain)
+                    .doFinally(signal -> {
+                        inFlight.remove(key, shared);
+                        // No-op if the response was captured; otherwise release the followers
+                        sink.tryEmitEmpty();
+                    });
+        };
+    }
+
+    private Mono<Void> lead(Sinks.One<CapturedResponse> sink, ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (getHeaders().getContentLength() > maximumBodyBytes) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            if (bytes.length <= maximumBodyBytes) {
+                                HttpHeaders headers = new HttpHeaders();
+                                headers.putAll(getHeaders());
+                                sink.tryEmitValue(new CapturedResponse(getStatusCode(), headers, bytes));
+                            }
+                            return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private Mono<Void> follow(Mono<CapturedResponse> leader, ServerWebExchange exchange, GatewayFilterChain chain) {
+        return leader
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(captured -> captured
+                        .map(response -> replay(exchange.getResponse(), response))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, CapturedResponse captured) {
+        response.setStatusCode(captured.status());
+        captured.headers().forEach((name, values) -> {
+            // Headers the follower already has, such as its own rate limit, belong to its request
+            if (!UNCOPIED_HEADERS.contains(name.toLowerCase()) && !response.getHeaders().containsKey(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        response.getHeaders().setContentLength(captured.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(captured.body())));
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+
+        public static Config forRoute(String routeId) {
+            Config config = new Config();
+            config.setRouteId(routeId);
+            return config;
+        }
+    }
+}
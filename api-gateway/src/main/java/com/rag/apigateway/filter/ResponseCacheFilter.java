@@ -0,0 +1,142 @@
+package com.rag.apigateway.filter;
+
+import com.rag.apigateway.cache.CachedResponse;
+import com.rag.apigateway.cache.ResponseCache;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches successful GET responses per user and route and answers conditional requests.
+ * <p>
+ * A request whose If-None-Match matches the cached ETag gets 304 without reaching the service;
+ * any other hit is served from the cache. Writes by the user on the route, and session or message
+ * events for the user, invalidate the user's entries. Must run after {@link AuthenticationFilter}.
+ */
+@Component
+@Slf4j
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final ResponseCache responseCache;
+    private final int maximumBodyBytes;
+
+    public ResponseCacheFilter(ResponseCache responseCache,
+                               @Value("${gateway.response-cache.maximum-body-bytes:262144}") int maximumBodyBytes) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.maximumBodyBytes = maximumBodyBytes;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String userId = request.getHeaders().getFirst("X-User-ID");
+            if (userId == null) {
+                return chain.filter(exchange);
+            }
+
+            if (request.getMethod() != HttpMethod.GET) {
+                // The user's own writes must be visible on their next read, without waiting for the event
+                responseCache.invalidateUser(userId);
+                return chain.filter(exchange);
+            }
+
+            String requestKey = config.getRouteId() + ' ' + request.getURI().getRawPath()
+                    + (request.getURI().getRawQuery() != null ? '?' + request.getURI().getRawQuery() : "");
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+            CachedResponse cached = responseCache.get(userId, requestKey);
+            if (cached != null) {
+                return writeCached(exchange, cached, ifNoneMatch);
+            }
+
+            long generation = responseCache.generation(userId);
+            ServerHttpResponse response = exchange.getResponse();
+            ServerHttpResponseDecorator caching = new ServerHttpResponseDecorator(response) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    long contentLength = getHeaders().getContentLength();
+                    if (getStatusCode() != HttpStatus.OK || contentLength > maximumBodyBytes) {
+                        return super.writeWith(body);
+                    }
+                    return DataBufferUtils.join(Flux.from(body))
+                            .flatMap(joined -> {
+                                byte[] bytes = new byte[joined.readableByteCount()];
+                                joined.read(bytes);
+                                DataBufferUtils.release(joined);
+                                return store(getDelegate(), userId, requestKey, generation, bytes, ifNoneMatch);
+                            });
+                }
+            };
+
+            return chain.filter(exchange.mutate().response(caching).build());
+        };
+    }
+
+    private Mono<Void> store(ServerHttpResponse response, String userId, String requestKey, long generation,
+                             byte[] body, String ifNoneMatch) {
+        String etag = ResponseCache.etag(body);
+        // Chunked responses have no length up front, so their size is only checked here
+        if (body.length <= maximumBodyBytes) {
+            MediaType contentType = response.getHeaders().getContentType();
+            responseCache.put(userId, requestKey, new CachedResponse(body, contentType, etag, generation));
+        }
+
+        response.getHeaders().setETag(etag);
+        response.getHeaders().setCacheControl(CACHE_CONTROL);
+        if (ResponseCache.matches(ifNoneMatch, etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String ifNoneMatch) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().setCacheControl(CACHE_CONTROL);
+
+        if (ResponseCache.matches(ifNoneMatch, cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            response.getHeaders().setContentType(cached.contentType());
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    @Data
+    public static class Config {
+        private String routeId;
+
+        public static Config forRoute(String routeId) {
+            Config config = new Config();
+            config.setRouteId(routeId);
+            return config;
+        }
+    }
+}
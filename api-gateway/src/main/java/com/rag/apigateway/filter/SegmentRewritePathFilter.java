@@ -0,0 +1,55 @@
+package com.rag.apigateway.filter;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * Drop-in replacement for {@code RewritePath} based on a {@link PathTemplateRewriter} compiled once
+ * per route. Like {@code RewritePath}, it records the original URL and leaves paths that do not
+ * match the source template unchanged.
+ */
+@Component
+public class SegmentRewritePathFilter extends AbstractGatewayFilterFactory<SegmentRewritePathFilter.Config> {
+
+    public SegmentRewritePathFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTemplateRewriter rewriter = PathTemplateRewriter.compile(config.getSource(), config.getTarget());
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            addOriginalRequestUrl(exchange, request.getURI());
+
+            String rewritten = rewriter.rewrite(request.getURI().getRawPath());
+            if (rewritten == null) {
+                return chain.filter(exchange);
+            }
+
+            ServerHttpRequest rewrittenRequest = request.mutate().path(rewritten).build();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, rewrittenRequest.getURI());
+            return chain.filter(exchange.mutate().request(rewrittenRequest).build());
+        };
+    }
+
+    @Data
+    public static class Config {
+        private String source;
+        private String target;
+
+        public static Config of(String source, String target) {
+            Config config = new Config();
+            config.setSource(source);
+            config.setTarget(target);
+            return config;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rag.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global allowance for hedged attempts: every eligible request earns a fraction of a hedge and
+ * every hedge spends a whole one, so hedges stay below that fraction of traffic plus a small burst
+ */
+class HedgeBudget {
+
+    private static final long UNIT = 1_000;
+
+    private final long earnedPerRequest;
+    private final long maximumBalance;
+    private final AtomicLong balance;
+
+    HedgeBudget(double ratio, int burst) {
+        this.earnedPerRequest = Math.round(ratio * UNIT);
+        this.maximumBalance = Math.max(1, burst) * UNIT;
+        this.balance = new AtomicLong(maximumBalance);
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(earnedPerRequest, (current, earned) -> Math.min(maximumBalance, current + earned));
+    }
+
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+}
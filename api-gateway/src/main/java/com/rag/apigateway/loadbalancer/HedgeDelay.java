@@ -0,0 +1,55 @@
+package com.rag.apigateway.loadbalancer;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the latency of one route and derives the hedge delay from a percentile of it.
+ * Samples go into an HdrHistogram {@link Recorder}; every refresh interval the recorded interval
+ * is read and, if it holds enough samples, becomes the new delay.
+ */
+class HedgeDelay {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 2);
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long minSamples;
+    private final long refreshIntervalNanos;
+    private final AtomicLong nextRefreshNanos;
+
+    private volatile long delayNanos;
+
+    HedgeDelay(double percentile, long initialDelayNanos, long minDelayNanos, long minSamples, long refreshIntervalNanos) {
+        this.percentile = percentile;
+        this.delayNanos = initialDelayNanos;
+        this.minDelayNanos = minDelayNanos;
+        this.minSamples = minSamples;
+        this.refreshIntervalNanos = refreshIntervalNanos;
+        this.nextRefreshNanos = new AtomicLong(System.nanoTime() + refreshIntervalNanos);
+    }
+
+    long delayNanos() {
+        long now = System.nanoTime();
+        long next = nextRefreshNanos.get();
+        if (now - next >= 0 && nextRefreshNanos.compareAndSet(next, now + refreshIntervalNanos)) {
+            refresh();
+        }
+        return delayNanos;
+    }
+
+    void record(long latencyNanos) {
+        recorder.recordValue(Math.min(Math.max(latencyNanos, 1), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    private void refresh() {
+        Histogram interval = recorder.getIntervalHistogram();
+        if (interval.getTotalCount() >= minSamples) {
+            delayNanos = Math.max(minDelayNanos, interval.getValueAtPercentile(percentile));
+        }
+    }
+}
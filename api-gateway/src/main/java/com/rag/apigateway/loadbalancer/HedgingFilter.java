@@ -0,0 +1,351 @@
+package com.rag.apigateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+/**
+ * Hedged GETs for routes that opt in with the {@value #HEDGE_METADATA} route metadata.
+ * <p>
+ * Runs right after the load balancer has picked an instance. The first attempt goes through the
+ * gateway's own routing filters; only its status and headers are held back until it answers. If
+ * it has not answered within the route's hedge delay (a percentile of recent response times), a
+ * second attempt goes to the least loaded other instance through the gateway's HTTP client, and
+ * whichever answers first is returned; the other is cancelled. Hedges draw from a global budget
+ * that is refilled by a fixed fraction of eligible requests, so they add at most that much extra
+ * load.
+ */
+@Component
+@Slf4j
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    public static final String HEDGE_METADATA = "hedge";
+
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceStatsRegistry registry;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final WebClient webClient;
+    private final HedgeBudget budget;
+    private final Map<String, HedgeDelay> delays = new ConcurrentHashMap<>();
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    private final double percentile;
+    private final Duration initialDelay;
+    private final Duration minDelay;
+    private final long minSamples;
+    private final Duration refreshInterval;
+
+    public HedgingFilter(LoadBalancerClientFactory clientFactory,
+                         InstanceStatsRegistry registry,
+                         MeterRegistry meterRegistry,
+                         HttpClient httpClient,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                         @Value("${gateway.hedging.percentile:95}") double percentile,
+                         @Value("${gateway.hedging.initial-delay:200ms}") Duration initialDelay,
+                         @Value("${gateway.hedging.min-delay:20ms}") Duration minDelay,
+                         @Value("${gateway.hedging.min-samples:50}") long minSamples,
+                         @Value("${gateway.hedging.refresh-interval:5s}") Duration refreshInterval,
+                         @Value("${gateway.hedging.budget-ratio:0.05}") double budgetRatio,
+                         @Value("${gateway.hedging.budget-burst:10}") int budgetBurst,
+                         @Value("${gateway.hedging.connect-timeout:1s}") Duration connectTimeout,
+                         @Value("${gateway.hedging.response-timeout:5s}") Duration responseTimeout) {
+        this.clientFactory = clientFactory;
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+        this.headersFilters = headersFilters;
+        this.percentile = percentile;
+        this.initialDelay = initialDelay;
+        this.minDelay = minDelay;
+        this.minSamples = minSamples;
+        this.refreshInterval = refreshInterval;
+        this.budget = new HedgeBudget(budgetRatio, budgetBurst);
+        // Shares the gateway's connection pool and settings; the body is streamed, so no codec limit applies
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                        .responseTimeout(responseTimeout)))
+                .build();
+    }
+
+    @Override
+    public int getOrder() {
+        // After the upstream timing, so hedged calls are measured as upstream time
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (route == null || requestUrl == null || lbResponse == null || !lbResponse.hasServer()
+                || !Boolean.TRUE.equals(route.getMetadata().get(HEDGE_METADATA))
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || isAlreadyRouted(exchange)
+                || !("http".equals(requestUrl.getScheme()) || "https".equals(requestUrl.getScheme()))) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance primary = lbResponse.getServer();
+        HedgeDelay delay = delays.computeIfAbsent(route.getId(), id -> new HedgeDelay(percentile,
+                initialDelay.toNanos(), minDelay.toNanos(), minSamples, refreshInterval.toNanos()));
+        RouteMeters routeMeters = meters.computeIfAbsent(route.getId(), this::routeMeters);
+        routeMeters.requests().increment();
+        budget.deposit();
+
+        Race race = new Race(delay);
+        HeldResponse held = new HeldResponse(exchange.getResponse());
+
+        // The routing filter completes once the response headers are in; the body is written later
+        // by the response writing filter, which runs outside this one
+        Mono<Void> first = chain.filter(exchange.mutate().response(held).build())
+                .doOnSuccess(done -> {
+                    if (race.claim(Attempt.PRIMARY)) {
+                        held.release();
+                    } else {
+                        discardPrimaryConnection(exchange);
+                    }
+                })
+                .takeUntilOther(race.won(Attempt.HEDGE));
+
+        Mono<Void> second = Mono.delay(Duration.ofNanos(delay.delayNanos()))
+                .flatMap(tick -> alternative(primary))
+                .filter(instance -> {
+                    if (budget.tryWithdraw()) {
+                        return true;
+                    }
+                    routeMeters.budgetExhausted().increment();
+                    return false;
+                })
+                .flatMap(instance -> {
+                    routeMeters.hedged().increment();
+                    return hedge(exchange, instance, requestUrl, race, routeMeters);
+                })
+                .takeUntilOther(race.won(Attempt.PRIMARY));
+
+        return Mono.when(first, second);
+    }
+
+    private Mono<ServiceInstance> alternative(ServiceInstance primary) {
+        ServiceInstanceListSupplier supplier = clientFactory
+                .getLazyProvider(primary.getServiceId(), ServiceInstanceListSupplier.class)
+                .getIfAvailable();
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next()
+                .flatMap(instances -> Mono.justOrEmpty(instances.stream()
+                        .filter(instance -> !(instance.getHost().equals(primary.getHost())
+                                && instance.getPort() == primary.getPort()))
+                        .min(Comparator.comparingDouble(instance -> registry.get(instance).score()))));
+    }
+
+    private Mono<Void> hedge(ServerWebExchange exchange, ServiceInstance instance, URI requestUrl, Race race,
+                             RouteMeters routeMeters) {
+        URI uri = UriComponentsBuilder.fromUri(requestUrl)
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+        // The same forwarded and hop-by-hop handling the routing filter applies to the first attempt
+        HttpHeaders requestHeaders = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange);
+        requestHeaders.remove(HttpHeaders.HOST);
+
+        InstanceCall call = new InstanceCall(registry.get(instance));
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> headers.addAll(requestHeaders))
+                .exchangeToMono(response -> {
+                    if (!race.claim(Attempt.HEDGE)) {
+                        return response.releaseBody();
+                    }
+                    routeMeters.hedgeWins().increment();
+                    InstanceCall primaryCall = exchange.getAttribute(InstanceCall.EXCHANGE_ATTR);
+                    if (primaryCall != null) {
+                        primaryCall.cancelled();
+                    }
+                    discardPrimaryConnection(exchange);
+                    return write(exchange, response);
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        call.succeeded();
+                    } else if (signal == SignalType.ON_ERROR) {
+                        call.failed();
+                    } else {
+                        call.cancelled();
+                    }
+                })
+                // A hedge that fails before answering leaves the request to the first attempt
+                .onErrorResume(error -> !race.isWonBy(Attempt.HEDGE), error -> {
+                    log.debug("Hedge to {} failed: {}", uri, error.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ClientResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.statusCode());
+        response.getHeaders().addAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+                upstream.headers().asHttpHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE));
+        return response.writeWith(upstream.bodyToFlux(DataBuffer.class));
+    }
+
+    /**
+     * Closes the connection of a first attempt that got its headers after the hedge answered, so
+     * the response writing filter does not copy its body as well
+     */
+    private static void discardPrimaryConnection(ServerWebExchange exchange) {
+        Object connection = exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection instanceof Connection primaryConnection) {
+            primaryConnection.dispose();
+        }
+    }
+
+    private RouteMeters routeMeters(String routeId) {
+        return new RouteMeters(
+                counter("gateway.hedging.requests", "GETs eligible for hedging", routeId),
+                counter("gateway.hedging.hedged", "Second attempts sent", routeId),
+                counter("gateway.hedging.wins", "Second attempts that answered first", routeId),
+                counter("gateway.hedging.budget-exhausted", "Hedges skipped because the budget was spent", routeId));
+    }
+
+    private Counter counter(String name, String description, String routeId) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    private enum Attempt {
+        PRIMARY, HEDGE
+    }
+
+    /**
+     * Decides which attempt answers the client. The time to the winner's headers is what the
+     * client saw, so it is what the hedge delay is derived from; recording only first attempts
+     * that won would leave out exactly the slow ones and drag the percentile down.
+     */
+    private static final class Race {
+
+        private final long startNanos = System.nanoTime();
+        private final HedgeDelay delay;
+        private final AtomicReference<Attempt> winner = new AtomicReference<>();
+        private final Sinks.One<Attempt> decided = Sinks.one();
+
+        Race(HedgeDelay delay) {
+            this.delay = delay;
+        }
+
+        boolean claim(Attempt attempt) {
+            if (!winner.compareAndSet(null, attempt)) {
+                return false;
+            }
+            delay.record(System.nanoTime() - startNanos);
+            decided.tryEmitValue(attempt);
+            return true;
+        }
+
+        boolean isWonBy(Attempt attempt) {
+            return winner.get() == attempt;
+        }
+
+        /**
+         * Emits once the attempt has won and never otherwise; completing empty would stop a
+         * {@code takeUntilOther} just the same
+         */
+        Mono<Attempt> won(Attempt attempt) {
+            return decided.asMono().flatMap(winner -> winner == attempt ? Mono.just(winner) : Mono.never());
+        }
+    }
+
+    /**
+     * The first attempt's view of the response: the routing filter's status and headers are held
+     * back until the attempt wins, so a losing first attempt leaves no trace on the response
+     */
+    private static final class HeldResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private volatile HttpStatusCode statusCode;
+        private volatile boolean released;
+
+        HeldResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        void release() {
+            if (statusCode != null) {
+                getDelegate().setStatusCode(statusCode);
+            }
+            getDelegate().getHeaders().addAll(headers);
+            released = true;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return released ? getDelegate().getHeaders() : headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            if (released) {
+                return getDelegate().setStatusCode(status);
+            }
+            statusCode = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return released ? getDelegate().getStatusCode() : statusCode;
+        }
+    }
+
+    private record RouteMeters(Counter requests, Counter hedged, Counter hedgeWins, Counter budgetExhausted) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.rag.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One call to a service instance, counted as in flight from creation until exactly one of
+ * {@link #succeeded()}, {@link #failed()} or {@link #cancelled()} is called. Later calls are
+ * ignored, so every party that may see the end of the call can report it.
+ */
+class InstanceCall {
+
+    static final String EXCHANGE_ATTR = InstanceCall.class.getName();
+
+    private final InstanceStats stats;
+    private final long startNanos;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    InstanceCall(InstanceStats stats) {
+        this.stats = stats;
+        this.startNanos = System.nanoTime();
+        stats.requestStarted();
+    }
+
+    InstanceStats stats() {
+        return stats;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    void succeeded() {
+        if (finished.compareAndSet(false, true)) {
+            stats.requestFinished(elapsedNanos());
+        }
+    }
+
+    void failed() {
+        if (finished.compareAndSet(false, true)) {
+            // A failed call says nothing good about the instance, so never let it lower the average
+            stats.requestFinished(Math.max(elapsedNanos(), (long) (stats.getEwmaNanos() * 2)));
+        }
+    }
+
+    void cancelled() {
+        if (finished.compareAndSet(false, true)) {
+            stats.requestCancelled();
+        }
+    }
+}
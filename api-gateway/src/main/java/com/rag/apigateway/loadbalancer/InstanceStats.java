@@ -0,0 +1,114 @@
+package com.rag.apigateway.loadbalancer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live load figures for one service instance: requests in flight and an exponentially weighted
+ * moving average of latency that decays with time rather than with request count, so an instance
+ * that recovers is trusted again even if it receives little traffic.
+ * <p>
+ * The average starts from a seed latency instead of zero, so a new or restarted instance does not
+ * look infinitely fast and win every comparison until its first responses arrive. While an
+ * instance has nothing in flight, its score drifts back toward that seed, so one slow spike cannot
+ * keep it from ever receiving the request that would correct its average.
+ */
+public class InstanceStats {
+
+    private final String serviceId;
+    private final String instance;
+    private final long decayNanos;
+    private final double seedNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double ewmaNanos;
+    private volatile long lastUpdateNanos;
+    private volatile boolean sampled;
+
+    InstanceStats(String serviceId, String instance, long decayNanos, double seedNanos) {
+        this.serviceId = serviceId;
+        this.instance = instance;
+        this.decayNanos = decayNanos;
+        this.seedNanos = seedNanos;
+        this.ewmaNanos = seedNanos;
+        this.lastUpdateNanos = System.nanoTime();
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getEwmaMillis() {
+        return ewmaNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    /**
+     * The latency average aged toward zero for the time since the last response while nothing is
+     * in flight, so an instance that stopped receiving traffic does not keep reporting the latency
+     * it had then. An instance with requests outstanding is not aged: a hung instance would
+     * otherwise look fast exactly because nothing completes.
+     */
+    public double getRecentEwmaMillis() {
+        double ewma = getEwmaMillis();
+        if (inFlight.get() > 0) {
+            return ewma;
+        }
+        long idle = Math.max(0, System.nanoTime() - lastUpdateNanos);
+        return ewma * Math.exp(-(double) idle / decayNanos);
+    }
+
+    /**
+     * Whether the average reflects at least one real response rather than only the seed
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * The load balancing cost: expected latency scaled by the queue the next request would join
+     */
+    public double score() {
+        int queued = inFlight.get();
+        if (queued > 0) {
+            return ewmaNanos * (queued + 1);
+        }
+        // Idle, so the average is aging: trust it less the longer nothing has confirmed it
+        double weight = Math.exp(-(double) Math.max(0, System.nanoTime() - lastUpdateNanos) / decayNanos);
+        return ewmaNanos * weight + seedNanos * (1 - weight);
+    }
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void requestFinished(long latencyNanos) {
+        inFlight.decrementAndGet();
+        record(latencyNanos);
+    }
+
+    void requestCancelled() {
+        // An abandoned attempt has no meaningful latency
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void record(long latencyNanos) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(0, now - lastUpdateNanos);
+        double weight = Math.exp(-(double) elapsed / decayNanos);
+        ewmaNanos = ewmaNanos == 0 ? latencyNanos : ewmaNanos * weight + latencyNanos * (1 - weight);
+        lastUpdateNanos = now;
+        sampled = true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rag.apigateway.loadbalancer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Finishes the {@link InstanceCall} of a routed request however the request ends. The load
+ * balancer filter only reports success and errors, so without this a client disconnect or a
+ * primary attempt that lost to a hedge would stay in flight forever.
+ */
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsLifecycle lifecycle;
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        InstanceCall call = lbResponse != null ? lifecycle.callFor(lbResponse) : null;
+        if (call == null) {
+            return chain.filter(exchange);
+        }
+
+        exchange.getAttributes().put(InstanceCall.EXCHANGE_ATTR, call);
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    switch (signal) {
+                        case ON_COMPLETE -> call.succeeded();
+                        case ON_ERROR -> call.failed();
+                        default -> call.cancelled();
+                    }
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package com.rag.apigateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts an {@link InstanceCall} for every load-balanced call, both from gateway routes and from
+ * the load-balanced {@code WebClient}, and finishes it when the load balancer reports completion.
+ * <p>
+ * The load balancer never reports cancelled calls, so gateway routes also finish their call in
+ * {@link InstanceStatsFilter}. Calls are keyed weakly by the load balancer response; a call whose
+ * response was dropped without ever being finished, such as a cancelled {@code WebClient} call,
+ * is counted as cancelled once the response is garbage collected.
+ */
+@Component
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final InstanceStatsRegistry registry;
+    private final Cache<Response<ServiceInstance>, InstanceCall> calls;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry registry) {
+        this.registry = registry;
+        this.calls = Caffeine.newBuilder()
+                .weakKeys()
+                .removalListener((Response<ServiceInstance> key, InstanceCall call, RemovalCause cause) -> {
+                    if (cause == RemovalCause.COLLECTED && call != null) {
+                        call.cancelled();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+        // Nothing to record until an instance has been chosen
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            calls.put(lbResponse, new InstanceCall(registry.get(lbResponse.getServer())));
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null) {
+            return;
+        }
+        InstanceCall call = calls.asMap().remove(lbResponse);
+        if (call == null) {
+            return;
+        }
+        switch (completionContext.status()) {
+            case SUCCESS -> call.succeeded();
+            case FAILED -> call.failed();
+            default -> call.cancelled();
+        }
+    }
+
+    /**
+     * Gets the call started for a load balancer response
+     *
+     * @param lbResponse the response the load balancer chose the instance with
+     * @return the call, or null if none is in flight
+     */
+    InstanceCall callFor(Response<ServiceInstance> lbResponse) {
+        return calls.getIfPresent(lbResponse);
+    }
+}
@@ -0,0 +1,70 @@
+package com.rag.apigateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Shared per-instance statistics, fed by {@link InstanceStatsLifecycle} and read by the load
+ * balancer. Instances that have not been used for a while are dropped so churn does not leak memory.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final long decayNanos;
+    private final long initialLatencyNanos;
+    private final Cache<String, InstanceStats> stats;
+
+    public InstanceStatsRegistry(@Value("${gateway.load-balancer.decay:10s}") Duration decay,
+                                 @Value("${gateway.load-balancer.idle-timeout:10m}") Duration idleTimeout,
+                                 @Value("${gateway.load-balancer.initial-latency:100ms}") Duration initialLatency) {
+        this.decayNanos = decay.toNanos();
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * Gets the statistics of an instance, creating them on first use
+     *
+     * @param instance the service instance
+     * @return the statistics
+     */
+    public InstanceStats get(ServiceInstance instance) {
+        String serviceId = instance.getServiceId();
+        String address = instance.getHost() + ':' + instance.getPort();
+        return stats.get(serviceId + '/' + address,
+                key -> new InstanceStats(serviceId, address, decayNanos, seedNanos(serviceId)));
+    }
+
+    /**
+     * The starting latency of a new instance: the mean of its service's measured instances, so it
+     * competes on equal terms, or the configured initial latency if none has been measured
+     */
+    private double seedNanos(String serviceId) {
+        double total = 0;
+        int count = 0;
+        for (InstanceStats instance : stats.asMap().values()) {
+            if (instance.getServiceId().equals(serviceId) && instance.isSampled()) {
+                total += instance.getEwmaNanos();
+                count++;
+            }
+        }
+        return count > 0 ? total / count : initialLatencyNanos;
+    }
+
+    /**
+     * Lists the statistics of all instances seen recently
+     *
+     * @return the statistics
+     */
+    public Collection<InstanceStats> all() {
+        return stats.asMap().values();
+    }
+}
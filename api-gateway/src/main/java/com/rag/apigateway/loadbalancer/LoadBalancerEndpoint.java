@@ -0,0 +1,35 @@
+package com.rag.apigateway.loadbalancer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/loadbalancer}: per-instance latency, in-flight requests and score, by service
+ */
+@Component
+@Endpoint(id = "loadbalancer")
+@RequiredArgsConstructor
+public class LoadBalancerEndpoint {
+
+    private final InstanceStatsRegistry registry;
+
+    @ReadOperation
+    public Map<String, List<InstanceScore>> instances() {
+        return registry.all().stream()
+                .sorted(Comparator.comparing(InstanceStats::getInstance))
+                .collect(Collectors.groupingBy(InstanceStats::getServiceId, TreeMap::new,
+                        Collectors.mapping(stats -> new InstanceScore(stats.getInstance(), stats.getEwmaMillis(),
+                                stats.getInFlight(), stats.score() / 1_000_000), Collectors.toList())));
+    }
+
+    public record InstanceScore(String instance, double ewmaMillis, int inFlight, double score) {
+    }
+}
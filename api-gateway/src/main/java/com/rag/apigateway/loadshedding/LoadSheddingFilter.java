@@ -0,0 +1,115 @@
+package com.rag.apigateway.loadshedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Sheds the lowest priority requests first while the gateway or its downstreams are overloaded.
+ * <p>
+ * A request's tier comes from the {@value #READ_PRIORITY_METADATA} or
+ * {@value #WRITE_PRIORITY_METADATA} metadata of its route, depending on the method. Each tier
+ * below CRITICAL is refused with 503 once the {@link OverloadDetector} pressure on the route's
+ * downstream service reaches its threshold. Runs before any route filter, so shed requests cost
+ * no authentication work.
+ */
+@Component
+@Slf4j
+public class LoadSheddingFilter implements GlobalFilter, Ordered {
+
+    public static final String READ_PRIORITY_METADATA = "read-priority";
+    public static final String WRITE_PRIORITY_METADATA = "write-priority";
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final OverloadDetector overloadDetector;
+    private final boolean enabled;
+    private final Map<PriorityTier, Double> shedAt = new EnumMap<>(PriorityTier.class);
+    private final Map<PriorityTier, Counter> dropped = new EnumMap<>(PriorityTier.class);
+
+    public LoadSheddingFilter(OverloadDetector overloadDetector,
+                              MeterRegistry meterRegistry,
+                              @Value("${gateway.load-shedding.enabled:true}") boolean enabled,
+                              @Value("${gateway.load-shedding.shed-at.low:1.0}") double lowShedAt,
+                              @Value("${gateway.load-shedding.shed-at.normal:1.5}") double normalShedAt,
+                              @Value("${gateway.load-shedding.shed-at.high:2.0}") double highShedAt) {
+        this.overloadDetector = overloadDetector;
+        this.enabled = enabled;
+        shedAt.put(PriorityTier.LOW, lowShedAt);
+        shedAt.put(PriorityTier.NORMAL, normalShedAt);
+        shedAt.put(PriorityTier.HIGH, highShedAt);
+        shedAt.put(PriorityTier.CRITICAL, Double.POSITIVE_INFINITY);
+
+        for (PriorityTier tier : PriorityTier.values()) {
+            dropped.put(tier, Counter.builder("gateway.shedding.dropped")
+                    .description("Requests shed because of overload")
+                    .tag("tier", tier.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        double pressure = overloadDetector.getPressure(serviceId(route));
+        PriorityTier tier = classify(exchange, route);
+        if (pressure < shedAt.get(tier)) {
+            return chain.filter(exchange);
+        }
+
+        dropped.get(tier).increment();
+        log.debug("Shedding {} {} at tier {} with pressure {}", exchange.getRequest().getMethod(),
+                exchange.getRequest().getPath(), tier, pressure);
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return exchange.getResponse().setComplete();
+    }
+
+    /**
+     * The service a route load balances over; other routes are only subject to event-loop lag
+     */
+    private static String serviceId(Route route) {
+        if (route == null || !"lb".equals(route.getUri().getScheme())) {
+            return null;
+        }
+        return route.getUri().getHost();
+    }
+
+    private PriorityTier classify(ServerWebExchange exchange, Route route) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        boolean read = method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+        Object tier = route != null
+                ? route.getMetadata().get(read ? READ_PRIORITY_METADATA : WRITE_PRIORITY_METADATA)
+                : null;
+        if (tier instanceof PriorityTier priorityTier) {
+            return priorityTier;
+        }
+        // Writes carry user intent and are rarely retried by clients, reads usually are
+        return read ? PriorityTier.NORMAL : PriorityTier.HIGH;
+    }
+}
@@ -0,0 +1,140 @@
+package com.rag.apigateway.loadshedding;
+
+import com.rag.apigateway.loadbalancer.InstanceStats;
+import com.rag.apigateway.loadbalancer.InstanceStatsRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns event-loop lag and downstream latency into an overload pressure per downstream service,
+ * where 1.0 means one of the signals has reached its threshold.
+ * <p>
+ * Every sample interval a probe task is queued on each server event loop; the time it waits to
+ * run is the lag, which affects every request. Downstream latency is the EWMA of the fastest
+ * instance of a service, so one slow instance the load balancer can avoid does not count as
+ * overload, and it only adds to the pressure of that service, so one slow downstream does not
+ * shed requests bound elsewhere. Both are sampled off the request path, so admission checks only
+ * read volatiles.
+ */
+@Component
+@Slf4j
+public class OverloadDetector {
+
+    private static final double SMOOTHING = 0.5;
+
+    private final InstanceStatsRegistry instanceStats;
+    private final double lagThresholdNanos;
+    private final double latencyThresholdMillis;
+    private final ScheduledExecutorService sampler;
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    private volatile double lagPressure;
+    private volatile Map<String, Double> latencyPressure = Map.of();
+    private volatile long eventLoopLagNanos;
+
+    public OverloadDetector(InstanceStatsRegistry instanceStats,
+                            MeterRegistry meterRegistry,
+                            @Value("${gateway.load-shedding.event-loop-lag-threshold:50ms}") Duration lagThreshold,
+                            @Value("${gateway.load-shedding.latency-threshold:1s}") Duration latencyThreshold,
+                            @Value("${gateway.load-shedding.sample-interval:250ms}") Duration sampleInterval) {
+        this.instanceStats = instanceStats;
+        this.lagThresholdNanos = lagThreshold.toNanos();
+        this.latencyThresholdMillis = latencyThreshold.toMillis();
+        this.sampler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("overload-detector-"));
+        this.sampler.scheduleAtFixedRate(this::sample, sampleInterval.toMillis(), sampleInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+
+        Gauge.builder("gateway.shedding.pressure", this, OverloadDetector::getPressure)
+                .description("Highest overload pressure of any downstream; 1.0 means a signal reached its threshold")
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.event-loop-lag", this, detector -> detector.eventLoopLagNanos / 1_000_000.0)
+                .description("Event loop lag in milliseconds over the last sample interval")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the highest pressure of any downstream service
+     *
+     * @return the pressure
+     */
+    public double getPressure() {
+        double pressure = lagPressure;
+        for (double servicePressure : latencyPressure.values()) {
+            pressure = Math.max(pressure, servicePressure);
+        }
+        return pressure;
+    }
+
+    /**
+     * Gets the pressure on requests bound for a downstream service
+     *
+     * @param serviceId the service, or null for requests not sent to a single service
+     * @return the pressure; without a service only event-loop lag counts
+     */
+    public double getPressure(String serviceId) {
+        if (serviceId == null) {
+            return lagPressure;
+        }
+        return Math.max(lagPressure, latencyPressure.getOrDefault(serviceId.toLowerCase(), 0.0));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    private void sample() {
+        try {
+            long lag = maxLagNanos.getAndSet(0);
+            eventLoopLagNanos = lag;
+            lagPressure = smooth(lag / lagThresholdNanos, lagPressure);
+            latencyPressure = sampleLatencyPressure();
+            probeEventLoops();
+        } catch (RuntimeException e) {
+            // Never let the scheduled task die, or the pressure would freeze at its last value
+            log.warn("Failed to sample overload signals: {}", e.getMessage());
+        }
+    }
+
+    private void probeEventLoops() {
+        for (EventExecutor executor : HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE)) {
+            long queuedAt = System.nanoTime();
+            executor.execute(() -> maxLagNanos.accumulateAndGet(System.nanoTime() - queuedAt, Math::max));
+        }
+    }
+
+    private Map<String, Double> sampleLatencyPressure() {
+        Map<String, Double> fastestByService = new HashMap<>();
+        for (InstanceStats stats : instanceStats.all()) {
+            if (stats.isSampled()) {
+                fastestByService.merge(stats.getServiceId().toLowerCase(), stats.getRecentEwmaMillis(), Math::min);
+            }
+        }
+        Map<String, Double> previous = latencyPressure;
+        Map<String, Double> current = new HashMap<>();
+        fastestByService.forEach((serviceId, latency) -> current.put(serviceId,
+                smooth(latency / latencyThresholdMillis, previous.getOrDefault(serviceId, 0.0))));
+        return Map.copyOf(current);
+    }
+
+    private static double smooth(double current, double previous) {
+        return SMOOTHING * current + (1 - SMOOTHING) * previous;
+    }
+}
@@ -0,0 +1,12 @@
+package com.rag.apigateway.loadshedding;
+
+/**
+ * Admission priority of a request, from the first to be shed to the last. CRITICAL requests
+ * are never shed by the gateway.
+ */
+public enum PriorityTier {
+    LOW,
+    NORMAL,
+    HIGH,
+    CRITICAL
+}
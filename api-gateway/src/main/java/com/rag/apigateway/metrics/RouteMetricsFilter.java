@@ -0,0 +1,130 @@
+package com.rag.apigateway.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Records every routed request as per-route timers with percentile histograms and SLO buckets:
+ * <ul>
+ *     <li>gateway.route.requests - total time, tagged by route, method and status</li>
+ *     <li>gateway.route.upstream - time spent waiting for the downstream, see {@link UpstreamTimingFilter}</li>
+ *     <li>gateway.route.overhead - total minus upstream time, i.e. what the gateway itself costs</li>
+ *     <li>gateway.route.in-flight - requests currently being handled</li>
+ * </ul>
+ * Runs first, so shed and rate limited requests are measured too.
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    static final String UPSTREAM_NANOS_ATTR = RouteMetricsFilter.class.getName() + ".upstreamNanos";
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> requestTimers;
+    private final Meter.MeterProvider<Timer> upstreamTimers;
+    private final Meter.MeterProvider<Timer> overheadTimers;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public RouteMetricsFilter(MeterRegistry meterRegistry,
+                              @Value("${gateway.metrics.slo:50ms,100ms,250ms,500ms,1s,2s}") Duration[] slo) {
+        this.meterRegistry = meterRegistry;
+        this.requestTimers = Timer.builder("gateway.route.requests")
+                .description("Time to handle a request, from arrival to the end of the response")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slo)
+                .withRegistry(meterRegistry);
+        this.upstreamTimers = Timer.builder("gateway.route.upstream")
+                .description("Time spent waiting for the downstream service")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slo)
+                .withRegistry(meterRegistry);
+        this.overheadTimers = Timer.builder("gateway.route.overhead")
+                .description("Time spent in the gateway itself")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : UNKNOWN_ROUTE;
+        AtomicInteger routeInFlight = inFlight.computeIfAbsent(routeId, this::registerInFlight);
+
+        routeInFlight.incrementAndGet();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    routeInFlight.decrementAndGet();
+                    record(exchange, routeId, signal, System.nanoTime() - start);
+                });
+    }
+
+    private void record(ServerWebExchange exchange, String routeId, SignalType signal, long totalNanos) {
+        String status = status(exchange, signal);
+        requestTimers.withTags(Tags.of(
+                        "route", routeId,
+                        "method", exchange.getRequest().getMethod().name(),
+                        "status", status))
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+
+        Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+        if (upstreamNanos != null) {
+            upstreamTimers.withTags(Tags.of("route", routeId, "status", status))
+                    .record(upstreamNanos, TimeUnit.NANOSECONDS);
+            overheadTimers.withTags(Tags.of("route", routeId))
+                    .record(Math.max(0, totalNanos - upstreamNanos), TimeUnit.NANOSECONDS);
+        } else {
+            // Answered by the gateway itself, e.g. from cache or by a rejection
+            overheadTimers.withTags(Tags.of("route", routeId))
+                    .record(totalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return "CANCELLED";
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.ON_ERROR && (status == null || !status.isError())) {
+            // The error handler has not set the final status yet
+            return "ERROR";
+        }
+        return status != null ? String.valueOf(status.value()) : "200";
+    }
+
+    private AtomicInteger registerInFlight(String routeId) {
+        AtomicInteger counter = new AtomicInteger();
+        Gauge.builder("gateway.route.in-flight", counter, AtomicInteger::get)
+                .description("Requests currently being handled")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return counter;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rag.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link VegasLimit} per route, so a struggling downstream sheds load without affecting
+ * the others. Publishes the current limit and in-flight count of every route as gauges.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration probeInterval;
+    private final Map<String, VegasLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiter(MeterRegistry meterRegistry,
+                              @Value("${gateway.concurrency-limit.enabled:true}") boolean enabled,
+                              @Value("${gateway.concurrency-limit.initial-limit:20}") int initialLimit,
+                              @Value("${gateway.concurrency-limit.min-limit:5}") int minLimit,
+                              @Value("${gateway.concurrency-limit.max-limit:500}") int maxLimit,
+                              @Value("${gateway.concurrency-limit.probe-interval:30s}") Duration probeInterval) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the limit of a route, creating it on first use
+     *
+     * @param routeId the route ID
+     * @return the limit
+     */
+    public VegasLimit forRoute(String routeId) {
+        return limits.computeIfAbsent(routeId, this::newLimit);
+    }
+
+    private VegasLimit newLimit(String routeId) {
+        VegasLimit limit = new VegasLimit(initialLimit, minLimit, maxLimit, probeInterval.toNanos());
+        Gauge.builder("gateway.concurrency.limit", limit, VegasLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, VegasLimit::getInFlight)
+                .description("Requests in flight to the downstream")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limit;
+    }
+}
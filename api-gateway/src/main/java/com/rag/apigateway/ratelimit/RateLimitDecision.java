@@ -0,0 +1,15 @@
+package com.rag.apigateway.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a rate limit check
+ *
+ * @param allowed    whether the request may proceed
+ * @param limit      the burst size of the bucket
+ * @param remaining  requests that could still be made right now
+ * @param retryAfter time until the next request would be allowed, zero if allowed
+ * @param resetAfter time until the bucket is full again
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, Duration retryAfter, Duration resetAfter) {
+}
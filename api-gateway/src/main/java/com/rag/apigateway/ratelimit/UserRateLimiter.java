@@ -0,0 +1,68 @@
+package com.rag.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rag.apigateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per user and route, implemented with the generic cell rate algorithm (GCRA).
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding its theoretical arrival time, updated with a
+ * CAS, so checks never lock. Buckets live in a bounded cache and are dropped after being idle;
+ * since the idle timeout is longer than the time to refill, a dropped bucket would have been full.
+ */
+@Component
+public class UserRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final Cache<String, AtomicLong> buckets;
+
+    public UserRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "gateway.ratelimit.buckets");
+    }
+
+    /**
+     * Takes one request from the bucket of a user on a route
+     *
+     * @param routeId the route ID
+     * @param userId  the user ID, or another caller key for unauthenticated routes
+     * @return the decision, including the values for the rate limit headers
+     */
+    public RateLimitDecision tryAcquire(String routeId, String userId) {
+        RateLimitProperties.Limit limit = properties.limitFor(routeId);
+        long interval = Math.max(1, limit.getPeriod().toNanos() / Math.max(1, limit.getRate()));
+        int burst = Math.max(1, limit.getBurst());
+        long capacity = interval * burst;
+
+        AtomicLong tat = buckets.get(routeId + ':' + userId, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long allowAt = next - capacity;
+
+            if (now < allowAt) {
+                return new RateLimitDecision(false, burst, 0,
+                        Duration.ofNanos(allowAt - now), Duration.ofNanos(current - now));
+            }
+            if (tat.compareAndSet(current, next)) {
+                long remaining = (now + capacity - next) / interval;
+                return new RateLimitDecision(true, burst, remaining, Duration.ZERO, Duration.ofNanos(next - now));
+            }
+        }
+    }
+}
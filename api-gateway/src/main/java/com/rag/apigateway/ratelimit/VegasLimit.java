@@ -0,0 +1,112 @@
+package com.rag.apigateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for one downstream, after TCP Vegas.
+ * <p>
+ * The queue building up in front of the downstream is estimated from how far the observed latency
+ * is above the lowest recent latency: {@code queue = limit * (1 - minRtt / rtt)}. The limit grows
+ * while that queue is small, shrinks once it is large and backs off on failures. The lowest latency
+ * is re-learned every probe interval so a permanently slower downstream is not read as congestion.
+ */
+public class VegasLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long probeIntervalNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long minRttNanos;
+    private long nextProbeNanos;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, long probeIntervalNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeIntervalNanos = probeIntervalNanos;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.nextProbeNanos = System.nanoTime() + probeIntervalNanos;
+    }
+
+    /**
+     * Admits a request if fewer than the current limit are in flight
+     *
+     * @return true if the request may proceed; it must then be completed with {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completes an admitted request and feeds its outcome into the limit
+     *
+     * @param rttNanos the time the request took
+     * @param dropped  true if the downstream failed or was overloaded
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int concurrent = inFlight.getAndDecrement();
+        if (rttNanos > 0) {
+            update(rttNanos, concurrent, dropped);
+        }
+    }
+
+    /**
+     * Completes an admitted request without using it as a sample, e.g. when the client went away
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int concurrent, boolean dropped) {
+        long now = System.nanoTime();
+        if (minRttNanos == 0 || rttNanos < minRttNanos || now - nextProbeNanos >= 0) {
+            if (now - nextProbeNanos >= 0) {
+                nextProbeNanos = now + probeIntervalNanos;
+            }
+            minRttNanos = rttNanos;
+        }
+
+        double current = estimatedLimit;
+        double step = Math.max(1.0, Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current - step;
+        } else if (concurrent * 2 < current) {
+            // Too few requests in flight to say anything about the limit
+            return;
+        } else {
+            double queue = Math.ceil(current * (1.0 - (double) minRttNanos / rttNanos));
+            if (queue <= 3 * step) {
+                next = current + step;
+            } else if (queue >= 6 * step) {
+                next = current - step;
+            } else {
+                return;
+            }
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,119 @@
+package com.rag.apigateway.security;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Client for credential validation calls to the auth service.
+ * <p>
+ * Built once with its own connection pool, so validations reuse kept-alive connections and cannot
+ * be starved by, or starve, proxied traffic. Every call has a connect timeout, a response timeout
+ * and an overall time limit, and goes through the "authService" circuit breaker. The pool
+ * publishes the reactor.netty.connection.provider metrics under the name "auth-service".
+ */
+@Component
+@Slf4j
+public class AuthServiceClient {
+
+    private static final String BASE_URL = "http://auth-service";
+
+    private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final ConnectionProvider connectionProvider;
+
+    public AuthServiceClient(WebClient.Builder webClientBuilder,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             TimeLimiterRegistry timeLimiterRegistry,
+                             @Value("${gateway.auth.client.max-connections:100}") int maxConnections,
+                             @Value("${gateway.auth.client.pending-acquire-max-count:200}") int pendingAcquireMaxCount,
+                             @Value("${gateway.auth.client.pending-acquire-timeout:500ms}") Duration pendingAcquireTimeout,
+                             @Value("${gateway.auth.client.max-idle-time:30s}") Duration maxIdleTime,
+                             @Value("${gateway.auth.client.max-life-time:5m}") Duration maxLifeTime,
+                             @Value("${gateway.auth.client.connect-timeout:500ms}") Duration connectTimeout,
+                             @Value("${gateway.auth.client.response-timeout:1s}") Duration responseTimeout) {
+        this.connectionProvider = ConnectionProvider.builder("auth-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(responseTimeout);
+
+        // Clone so the shared load-balanced builder keeps its default connector
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(BASE_URL)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("authService");
+        this.timeLimiter = timeLimiterRegistry.timeLimiter("authService");
+    }
+
+    /**
+     * Validates a JWT with the auth service
+     *
+     * @param token the token
+     * @return the user ID; errors with a {@link WebClientResponseException} if the token is rejected
+     * or an {@link AuthServiceUnavailableException} if the auth service cannot answer
+     */
+    public Mono<String> validateToken(String token) {
+        return call(webClient.get()
+                .uri(uri -> uri.path("/api/auth/validate").queryParam("token", "{token}").build(token)));
+    }
+
+    /**
+     * Validates an API key with the auth service
+     *
+     * @param apiKey the API key
+     * @return the user ID; errors with a {@link WebClientResponseException} if the key is rejected
+     * or an {@link AuthServiceUnavailableException} if the auth service cannot answer
+     */
+    public Mono<String> validateApiKey(String apiKey) {
+        return call(webClient.get()
+                .uri(uri -> uri.path("/validate").queryParam("apiKey", "{apiKey}").build(apiKey)));
+    }
+
+    private Mono<String> call(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                .bodyToMono(String.class)
+                .transformDeferred(TimeLimiterOperator.of(timeLimiter))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(error -> !isClientError(error),
+                        error -> new AuthServiceUnavailableException("Auth service is not available", error));
+    }
+
+    private static boolean isClientError(Throwable error) {
+        return error instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,12 @@
+package com.rag.apigateway.security;
+
+/**
+ * The auth service could not give an answer about a credential: it timed out, failed, or its
+ * circuit breaker is open. Unlike a rejection, this says nothing about the credential itself.
+ */
+public class AuthServiceUnavailableException extends RuntimeException {
+
+    public AuthServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
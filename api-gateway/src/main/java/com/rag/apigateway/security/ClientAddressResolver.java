@@ -0,0 +1,138 @@
+package com.rag.apigateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the address of the client behind a request.
+ * <p>
+ * X-Forwarded-For is client-controlled, so it is only read when the peer is a trusted proxy, and
+ * then walked from the right: the first hop that is not a trusted proxy is the client. Without
+ * trusted proxies the TCP peer address is used.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String UNKNOWN = "unknown";
+
+    private final List<Cidr> trustedProxies;
+
+    /**
+     * @param trustedProxies addresses or CIDR ranges of the load balancers in front of the gateway
+     */
+    public ClientAddressResolver(@Value("${gateway.auth.failures.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = new ArrayList<>();
+        for (String proxy : trustedProxies) {
+            if (!proxy.isBlank()) {
+                this.trustedProxies.add(Cidr.parse(proxy.trim()));
+            }
+        }
+    }
+
+    /**
+     * Resolves the client address of a request
+     *
+     * @param request the request
+     * @return the client address, or "unknown" if there is none
+     */
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN;
+        }
+        InetAddress peer = remoteAddress.getAddress();
+        if (!isTrusted(peer)) {
+            return peer.getHostAddress();
+        }
+
+        List<String> forwardedFor = request.getHeaders().getOrEmpty(X_FORWARDED_FOR);
+        String client = peer.getHostAddress();
+        // Headers may repeat and each may hold a list; the last hop is the closest one
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String[] hops = forwardedFor.get(i).split(",");
+            for (int j = hops.length - 1; j >= 0; j--) {
+                String hop = hops[j].trim();
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                InetAddress address = parseLiteral(hop);
+                if (address == null) {
+                    // Anything before a malformed hop cannot be trusted either
+                    return client;
+                }
+                client = address.getHostAddress();
+                if (!isTrusted(address)) {
+                    return client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(InetAddress address) {
+        for (Cidr proxy : trustedProxies) {
+            if (proxy.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses an IP literal without ever doing a DNS lookup
+     */
+    private static InetAddress parseLiteral(String value) {
+        String literal = value.startsWith("[") && value.endsWith("]") ? value.substring(1, value.length() - 1) : value;
+        boolean ipv4 = literal.chars().allMatch(c -> c == '.' || Character.isDigit(c));
+        boolean ipv6 = literal.indexOf(':') >= 0 && literal.chars().allMatch(c -> c == ':' || c == '.' || Character.digit(c, 16) >= 0);
+        if (!ipv4 && !ipv6) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(literal);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record Cidr(byte[] network, int prefixLength) {
+
+        static Cidr parse(String value) {
+            int slash = value.indexOf('/');
+            InetAddress address = parseLiteral(slash < 0 ? value : value.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + value);
+            }
+            byte[] network = address.getAddress();
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(value.substring(slash + 1));
+            return new Cidr(network, prefixLength);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.rag.apigateway.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts authentication failures per client address in fixed time windows, using two rows of
+ * striped counters instead of a map so memory stays constant during a credential-stuffing burst.
+ * <p>
+ * Each slot packs the window number into its upper bits and the failure count into the lower
+ * {@value #COUNT_BITS} bits, so a slot from an old window is reset with the same CAS that
+ * increments it. A client's count is the minimum over both rows (count-min sketch); an innocent
+ * client is only blocked if it collides with heavy offenders in both rows.
+ */
+@Component
+public class ClientFailureTracker {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int SECOND_HASH_SEED = 0x9E3779B9;
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final int mask;
+    private final AtomicLongArray firstRow;
+    private final AtomicLongArray secondRow;
+    private final Counter blockedRequests;
+
+    public ClientFailureTracker(@Value("${gateway.auth.failures.max-failures:20}") int maxFailures,
+                                @Value("${gateway.auth.failures.window:1m}") Duration window,
+                                @Value("${gateway.auth.failures.stripes:65536}") int stripes,
+                                MeterRegistry meterRegistry) {
+        this.maxFailures = maxFailures;
+        this.windowMillis = window.toMillis();
+        int width = Integer.highestOneBit(Math.max(stripes, 2) - 1) << 1;
+        this.mask = width - 1;
+        this.firstRow = new AtomicLongArray(width);
+        this.secondRow = new AtomicLongArray(width);
+        this.blockedRequests = Counter.builder("gateway.auth.blocked")
+                .description("Requests rejected because the client exceeded the authentication failure limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a client has exceeded the failure limit in the current window
+     *
+     * @param clientAddress the client address
+     * @return the time until the client may retry, or null if the client is not blocked
+     */
+    public Duration retryAfter(String clientAddress) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        int hash = clientAddress.hashCode();
+
+        long failures = Math.min(
+                countIn(firstRow, firstIndex(hash), window),
+                countIn(secondRow, secondIndex(hash), window));
+        if (failures < maxFailures) {
+            return null;
+        }
+
+        blockedRequests.increment();
+        return Duration.ofMillis((window + 1) * windowMillis - now);
+    }
+
+    /**
+     * Records an authentication failure for a client
+     *
+     * @param clientAddress the client address
+     */
+    public void recordFailure(String clientAddress) {
+        long window = System.currentTimeMillis() / windowMillis;
+        int hash = clientAddress.hashCode();
+        increment(firstRow, firstIndex(hash), window);
+        increment(secondRow, secondIndex(hash), window);
+    }
+
+    private int firstIndex(int hash) {
+        return spread(hash) & mask;
+    }
+
+    private int secondIndex(int hash) {
+        return spread(hash ^ SECOND_HASH_SEED) & mask;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long countIn(AtomicLongArray row, int index, long window) {
+        long slot = row.get(index);
+        return (slot >>> COUNT_BITS) == window ? slot & COUNT_MASK : 0;
+    }
+
+    private static void increment(AtomicLongArray row, int index, long window) {
+        long current;
+        long next;
+        do {
+            current = row.get(index);
+            long count = (current >>> COUNT_BITS) == window ? current & COUNT_MASK : 0;
+            if (count == COUNT_MASK) {
+                return;
+            }
+            next = (window << COUNT_BITS) | (count + 1);
+        } while (!row.compareAndSet(index, current, next));
+    }
+}
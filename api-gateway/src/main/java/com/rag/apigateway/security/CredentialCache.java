@@ -0,0 +1,175 @@
+package com.rag.apigateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of credentials that have already been validated, keyed by a SHA-256 digest of the
+ * credential so raw tokens and API keys are never held in memory.
+ * <p>
+ * Each entry lives at most {@code max-ttl} and never past the token's own expiry. Revocations
+ * evict every entry of the user and are remembered for {@code revocation-retention}, so that
+ * locally verified JWTs issued before the revocation keep being rejected. Credentials that were
+ * rejected are remembered for {@code negative-ttl} so repeats never reach the auth service.
+ */
+@Component
+public class CredentialCache {
+
+    private final Duration maxTtl;
+    private final Cache<String, CachedCredential> credentials;
+    private final Cache<String, Instant> revocations;
+    private final Cache<String, Boolean> invalidCredentials;
+
+    public CredentialCache(@Value("${gateway.auth.cache.maximum-size:100000}") long maximumSize,
+                           @Value("${gateway.auth.cache.max-ttl:5m}") Duration maxTtl,
+                           @Value("${gateway.auth.cache.revocation-retention:24h}") Duration revocationRetention,
+                           @Value("${gateway.auth.cache.negative-ttl:30s}") Duration negativeTtl,
+                           MeterRegistry meterRegistry) {
+        this.maxTtl = maxTtl;
+        this.credentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new CredentialExpiry())
+                .recordStats()
+                .build();
+        this.revocations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(revocationRetention)
+                .build();
+        this.invalidCredentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, credentials, "gateway.credentials");
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidCredentials, "gateway.credentials.invalid");
+    }
+
+    /**
+     * Computes the cache key for a credential
+     *
+     * @param credential the raw token or API key
+     * @return the hex encoded SHA-256 digest
+     */
+    public String digest(String credential) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(credential.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Looks up the user ID of a previously validated credential
+     *
+     * @param digest the credential digest
+     * @return the user ID, or null if the credential is not cached
+     */
+    public String getUserId(String digest) {
+        CachedCredential cached = credentials.getIfPresent(digest);
+        return cached != null ? cached.userId() : null;
+    }
+
+    /**
+     * Caches a validated credential
+     *
+     * @param digest      the credential digest
+     * @param verified    the validation result; a null expiry means the credential has none of its own
+     * @param validatedAt when validation started, used to drop results that raced with a revocation
+     */
+    public void put(String digest, VerifiedToken verified, Instant validatedAt) {
+        Instant revokedAt = revocations.getIfPresent(verified.userId());
+        if (revokedAt != null && !revokedAt.isBefore(validatedAt)) {
+            return;
+        }
+
+        Duration ttl = maxTtl;
+        if (verified.expiresAt() != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), verified.expiresAt());
+            if (untilExpiry.compareTo(ttl) < 0) {
+                ttl = untilExpiry;
+            }
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+
+        credentials.put(digest, new CachedCredential(verified.userId(), ttl.toNanos()));
+    }
+
+    /**
+     * Checks whether a credential was rejected recently
+     *
+     * @param digest the credential digest
+     * @return true if the credential is known to be invalid
+     */
+    public boolean isKnownInvalid(String digest) {
+        return invalidCredentials.getIfPresent(digest) != null;
+    }
+
+    /**
+     * Records a credential that was definitively rejected
+     *
+     * @param digest the credential digest
+     */
+    public void recordInvalid(String digest) {
+        invalidCredentials.put(digest, Boolean.TRUE);
+    }
+
+    /**
+     * Evicts every cached credential of a user and remembers when the revocation happened
+     *
+     * @param userId    the user ID
+     * @param revokedAt when the credential was revoked
+     */
+    public void revokeUser(String userId, Instant revokedAt) {
+        revocations.asMap().merge(userId, revokedAt, (current, incoming) -> incoming.isAfter(current) ? incoming : current);
+        credentials.asMap().values().removeIf(cached -> cached.userId().equals(userId));
+    }
+
+    /**
+     * Checks whether a token was issued before its user's credentials were revoked
+     *
+     * @param userId   the user ID
+     * @param issuedAt the token's issued-at time, may be null
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String userId, Instant issuedAt) {
+        Instant revokedAt = revocations.getIfPresent(userId);
+        return revokedAt != null && (issuedAt == null || !issuedAt.isAfter(revokedAt));
+    }
+
+    private record CachedCredential(String userId, long ttlNanos) {
+    }
+
+    private static final class CredentialExpiry implements Expiry<String, CachedCredential> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedCredential value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedCredential value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedCredential value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rag.apigateway.security;
+
+import com.rag.apigateway.config.JwtProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Verifies HS256 tokens minted by the auth service without a network round trip.
+ * Parsers are built once per configured key and are immutable, so verification is thread-safe.
+ */
+@Component
+@Slf4j
+public class JwtVerifier {
+
+    private static final String USER_ID_CLAIM = "userId";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final boolean enabled;
+    private final List<JwtParser> parsers;
+
+    public JwtVerifier(JwtProperties properties) {
+        this.parsers = properties.getKeys().stream()
+                .map(key -> Jwts.parserBuilder()
+                        .setSigningKey(Keys.hmacShaKeyFor(key.getSecret().getBytes(StandardCharsets.UTF_8)))
+                        .setAllowedClockSkewSeconds(properties.getClockSkew().toSeconds())
+                        .build())
+                .toList();
+        this.enabled = properties.isEnabled() && !parsers.isEmpty();
+        log.info("Local JWT verification {} with {} active key(s)", enabled ? "enabled" : "disabled", parsers.size());
+    }
+
+    /**
+     * Checks whether local verification is enabled and has at least one key
+     *
+     * @return true if tokens can be verified locally
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether a credential has the shape of a compact JWS (three dot-separated parts)
+     *
+     * @param credential the credential to check
+     * @return true if the credential looks like a JWT
+     */
+    public static boolean isJwt(String credential) {
+        int first = credential.indexOf('.');
+        if (first <= 0) {
+            return false;
+        }
+        int second = credential.indexOf('.', first + 1);
+        return second > first + 1 && credential.indexOf('.', second + 1) < 0;
+    }
+
+    /**
+     * Verifies a token against the active keys
+     *
+     * @param token the compact JWT
+     * @return the verified token
+     * @throws JwtException if the token is invalid, expired or signed with an unknown key
+     */
+    public VerifiedToken verify(String token) {
+        SignatureException signatureException = null;
+
+        for (JwtParser parser : parsers) {
+            Claims claims;
+            try {
+                claims = parser.parseClaimsJws(token).getBody();
+            } catch (SignatureException e) {
+                // Signed with a different key, try the next one
+                signatureException = e;
+                continue;
+            }
+
+            String userId = claims.get(USER_ID_CLAIM, String.class);
+            if (userId == null) {
+                throw new MalformedJwtException("Token has no " + USER_ID_CLAIM + " claim");
+            }
+            return new VerifiedToken(userId, toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
+        }
+
+        throw signatureException != null ? signatureException : new JwtException("No verification key configured");
+    }
+
+    /**
+     * Reads the exp claim of a token without verifying it. Only use this for tokens that have
+     * already been validated elsewhere, e.g. by the auth service.
+     *
+     * @param token the compact JWT
+     * @return the expiry, or empty if the token has none or cannot be decoded
+     */
+    public static Optional<Instant> readExpiration(String token) {
+        try {
+            int first = token.indexOf('.');
+            String payload = token.substring(first + 1, token.indexOf('.', first + 1));
+            JsonNode exp = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(payload)).get("exp");
+            return exp != null && exp.canConvertToLong() ? Optional.of(Instant.ofEpochSecond(exp.asLong())) : Optional.empty();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
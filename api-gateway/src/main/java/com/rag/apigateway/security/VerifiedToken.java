@@ -0,0 +1,13 @@
+package com.rag.apigateway.security;
+
+import java.time.Instant;
+
+/**
+ * Result of a successful local JWT verification
+ *
+ * @param userId    the user ID carried in the userId claim
+ * @param issuedAt  when the token was issued, or null if the token has no iat claim
+ * @param expiresAt when the token expires, or null if the token has no exp claim
+ */
+public record VerifiedToken(String userId, Instant issuedAt, Instant expiresAt) {
+}
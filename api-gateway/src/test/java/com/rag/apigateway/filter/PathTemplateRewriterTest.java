@@ -0,0 +1,78 @@
+package com.rag.apigateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathTemplateRewriterTest {
+
+    private static final PathTemplateRewriter AUTH =
+            PathTemplateRewriter.compile("/api/v1/auth/{*segment}", "/api/auth/{segment}");
+    private static final PathTemplateRewriter MESSAGES =
+            PathTemplateRewriter.compile("/api/v1/sessions/{sessionId}/messages/{*segment}", "/messages/{sessionId}/{segment}");
+    private static final PathTemplateRewriter CONTEXT =
+            PathTemplateRewriter.compile("/api/v1/messages/{messageId}/context/{*segment}", "/context/{messageId}/{segment}");
+
+    @Test
+    void rewritesAuthRoute() {
+        assertThat(AUTH.rewrite("/api/v1/auth/login")).isEqualTo("/api/auth/login");
+        assertThat(AUTH.rewrite("/api/v1/auth/api-keys/abc/revoke")).isEqualTo("/api/auth/api-keys/abc/revoke");
+    }
+
+    @Test
+    void rewritesMessageRoute() {
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/3f2a/messages/page/2"))
+                .isEqualTo("/messages/3f2a/page/2");
+    }
+
+    @Test
+    void rewritesContextRoute() {
+        assertThat(CONTEXT.rewrite("/api/v1/messages/9b1c/context/search"))
+                .isEqualTo("/context/9b1c/search");
+    }
+
+    @Test
+    void catchAllMayBeEmpty() {
+        assertThat(AUTH.rewrite("/api/v1/auth/")).isEqualTo("/api/auth/");
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/3f2a/messages/")).isEqualTo("/messages/3f2a/");
+    }
+
+    @Test
+    void rejectsPathWithoutTrailingSegment() {
+        assertThat(AUTH.rewrite("/api/v1/auth")).isNull();
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/3f2a/messages")).isNull();
+        assertThat(CONTEXT.rewrite("/api/v1/messages/9b1c")).isNull();
+    }
+
+    @Test
+    void rejectsEmptySegmentCapture() {
+        assertThat(MESSAGES.rewrite("/api/v1/sessions//messages/page")).isNull();
+        assertThat(CONTEXT.rewrite("/api/v1/messages//context/search")).isNull();
+    }
+
+    @Test
+    void keepsEncodedSlashInsideSegment() {
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/a%2Fb/messages/page"))
+                .isEqualTo("/messages/a%2Fb/page");
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/a/b/messages/page")).isNull();
+    }
+
+    @Test
+    void rejectsOtherPaths() {
+        assertThat(MESSAGES.rewrite("/api/v1/sessions/3f2a")).isNull();
+        assertThat(MESSAGES.rewrite("/api/v2/sessions/3f2a/messages/page")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedTemplates() {
+        assertThatThrownBy(() -> PathTemplateRewriter.compile("/a/{*rest}/b", "/{rest}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTemplateRewriter.compile("/a/{id}x", "/{id}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTemplateRewriter.compile("/a/{id}", "/{other}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTemplateRewriter.compile("/a/{}", "/"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.rag.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceStatsTest {
+
+    private static final Duration DECAY = Duration.ofMillis(50);
+    private static final long SEED = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void penalizedInstanceIsPickedAgainAfterDecay() throws InterruptedException {
+        InstanceStats slow = new InstanceStats("svc", "a", DECAY.toNanos(), SEED);
+        InstanceStats healthy = new InstanceStats("svc", "b", DECAY.toNanos(), SEED);
+
+        // Let enough time pass that each sample replaces the seed rather than blending into it
+        Thread.sleep(DECAY.multipliedBy(10).toMillis());
+        slow.requestStarted();
+        slow.requestFinished(Duration.ofSeconds(1).toNanos());
+        healthy.requestStarted();
+        healthy.requestFinished(SEED);
+        healthy.requestStarted();
+
+        assertThat(slow.score()).isGreaterThan(healthy.score());
+
+        Thread.sleep(DECAY.multipliedBy(10).toMillis());
+
+        assertThat(slow.score()).isLessThan(healthy.score());
+        assertThat(slow.getEwmaMillis()).isGreaterThan(500);
+    }
+
+    @Test
+    void instanceWithRequestsInFlightIsNotAged() throws InterruptedException {
+        InstanceStats stats = new InstanceStats("svc", "a", DECAY.toNanos(), SEED);
+        Thread.sleep(DECAY.multipliedBy(10).toMillis());
+        stats.requestStarted();
+        stats.requestFinished(Duration.ofSeconds(1).toNanos());
+        stats.requestStarted();
+
+        Thread.sleep(DECAY.multipliedBy(10).toMillis());
+
+        assertThat(stats.score()).isGreaterThan(Duration.ofSeconds(1).toNanos());
+    }
+}
@@ -0,0 +1,129 @@
+package com.rag.authservice.cache;
+
+import com.rag.authservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of existing usernames, so signups with a new username skip the lookup query.
+ * <p>
+ * A negative answer means the username is definitely not taken by any user this instance knows
+ * of; a positive answer may be a false positive and is confirmed with a query. Users created by
+ * other instances, or while the filter is warming up, are not in the filter, so the unique
+ * constraint on {@code users.username} remains the final guard. Until the startup scan has
+ * finished every username is reported as possibly taken.
+ */
+@Component
+@Slf4j
+public class UsernameBloomFilter {
+
+    private final UserRepository userRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    public UsernameBloomFilter(UserRepository userRepository,
+                               @Value("${username-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Loads all existing usernames with a streamed scan once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        long[] count = {0};
+        try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+            usernames.forEach(username -> {
+                put(username);
+                count[0]++;
+            });
+        }
+        ready = true;
+        log.info("Loaded {} usernames into the Bloom filter in {} ms ({} bits, {} hashes)",
+                count[0], System.currentTimeMillis() - start, bitCount, hashCount);
+    }
+
+    /**
+     * Checks whether a username might already be taken
+     *
+     * @param username the username to check
+     * @return false if the username is definitely available, true if it has to be checked in the database
+     */
+    public boolean mightContain(String username) {
+        if (!ready) {
+            return true;
+        }
+        long hash = hash(username);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a username that now exists
+     *
+     * @param username the username to add
+     */
+    public void put(String username) {
+        long hash = hash(username);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private long index(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur3 mix to spread both halves
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,18 +1,43 @@
 package com.rag.authservice.config;
 
+import com.rag.authservice.security.CalibratedBCryptPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
+@Slf4j
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
+    // The same on every instance, so replicas never disagree about which hashes need an upgrade
+    @Value("${password-hashing.strength:12}")
+    private int strength;
+
+    @Value("${password-hashing.calibration-check:true}")
+    private boolean calibrationCheck;
+
+    @Value("${password-hashing.latency-budget:250ms}")
+    private Duration latencyBudget;
+
+    @Value("${password-hashing.min-strength:10}")
+    private int minStrength;
+
+    @Value("${password-hashing.max-strength:14}")
+    private int maxStrength;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -25,8 +50,23 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Hashes are stored as {@code {bcrypt}$2a$NN$...}, so the encoder and its cost travel with each
+     * hash. Hashes written before the id prefix existed are plain BCrypt and still match.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        CalibratedBCryptPasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(strength);
+        if (calibrationCheck) {
+            int recommended = CalibratedBCryptPasswordEncoder.calibrate(latencyBudget, minStrength, maxStrength);
+            if (recommended != strength) {
+                log.warn("password-hashing.strength is {}, but {} is the highest work factor within the {} ms "
+                        + "budget on this host", strength, recommended, latencyBudget.toMillis());
+            }
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
-}
\ No newline at end of file
+}
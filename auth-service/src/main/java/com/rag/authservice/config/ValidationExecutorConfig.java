@@ -0,0 +1,34 @@
+package com.rag.authservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ValidationExecutorConfig {
+
+    @Value("${validation.batch.pool-size:8}")
+    private int poolSize;
+
+    @Value("${validation.batch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * Bounded pool for batch credential validation. When it is saturated the calling request
+     * thread validates the credential itself, which slows the batch down instead of failing it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor credentialValidationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("credential-validation-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
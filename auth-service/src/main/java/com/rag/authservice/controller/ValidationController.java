@@ -1,19 +1,28 @@
 package com.rag.authservice.controller;
 
+import com.rag.authservice.dto.BatchValidationRequestDto;
+import com.rag.authservice.dto.BatchValidationResponseDto;
+import com.rag.authservice.dto.CredentialValidationResultDto;
 import com.rag.authservice.service.ApiKeyService;
+import com.rag.authservice.service.CredentialValidationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/validate")
 @RequiredArgsConstructor
@@ -22,6 +31,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class ValidationController {
 
     private final ApiKeyService apiKeyService;
+    private final CredentialValidationService credentialValidationService;
 
     @GetMapping
     @Operation(summary = "Validate API key")
@@ -35,4 +45,17 @@ public class ValidationController {
         String userId = apiKeyService.validateApiKey(apiKey);
         return ResponseEntity.ok(userId);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    @Operation(summary = "Validate a batch of JWT tokens and API keys")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One validation result per credential, in request order"),
+            @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<BatchValidationResponseDto> validateBatch(
+            @Valid @RequestBody BatchValidationRequestDto request) {
+        log.info("Validating batch of {} credentials", request.getCredentials().size());
+        List<CredentialValidationResultDto> results = credentialValidationService.validateAll(request.getCredentials());
+        return ResponseEntity.ok(new BatchValidationResponseDto(results));
+    }
+}
@@ -0,0 +1,20 @@
+package com.rag.authservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationRequestDto {
+
+    @NotEmpty(message = "At least one credential is required")
+    @Size(max = 1000, message = "At most 1000 credentials can be validated per request")
+    private List<@Valid CredentialDto> credentials;
+}
@@ -0,0 +1,15 @@
+package com.rag.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationResponseDto {
+    // Same order as the credentials in the request
+    private List<CredentialValidationResultDto> results;
+}
@@ -0,0 +1,19 @@
+package com.rag.authservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialDto {
+
+    @NotNull(message = "Credential type is required")
+    private CredentialType type;
+
+    @NotBlank(message = "Credential value is required")
+    private String value;
+}
@@ -0,0 +1,6 @@
+package com.rag.authservice.dto;
+
+public enum CredentialType {
+    TOKEN,
+    API_KEY
+}
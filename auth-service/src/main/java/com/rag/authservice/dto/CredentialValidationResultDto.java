@@ -0,0 +1,13 @@
+package com.rag.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialValidationResultDto {
+    private boolean valid;
+    private String userId;
+}
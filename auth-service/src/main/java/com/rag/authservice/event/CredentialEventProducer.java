@@ -0,0 +1,36 @@
+package com.rag.authservice.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialEventProducer {
+
+    public static final String TOPIC = "credential-events";
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    /**
+     * Sends an API key revoked event to Kafka so gateways drop any cached validation for the user
+     *
+     * @param userId the user ID whose API key was revoked
+     * @return true if the event was sent successfully
+     */
+    public boolean sendApiKeyRevokedEvent(UUID userId) {
+        try {
+            CredentialEvent event = new CredentialEvent(CredentialEventType.API_KEY_REVOKED, userId, OffsetDateTime.now());
+            kafkaTemplate.send(TOPIC, userId.toString(), event);
+            log.info("Sent event to topic {}: {}", TOPIC, event);
+            return true;
+        } catch (Exception e) {
+            log.error("Error sending event to topic {}: {}", TOPIC, e.getMessage(), e);
+            return false;
+        }
+    }
+}
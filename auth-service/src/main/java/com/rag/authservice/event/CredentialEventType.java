@@ -0,0 +1,5 @@
+package com.rag.authservice.event;
+
+public enum CredentialEventType {
+    API_KEY_REVOKED
+}
@@ -30,6 +30,9 @@ public class User {
     @Column(nullable = false)
     private String password;
 
+    @Column(name = "api_key_id", unique = true)
+    private String apiKeyId;
+
     @Column(name = "api_key_hash", nullable = false)
     private String apiKeyHash;
 
@@ -1,13 +1,41 @@
 package com.rag.authservice.repository;
 
 import com.rag.authservice.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    Optional<User> findByApiKeyId(String apiKeyId);
+
+    Optional<User> findFirstByApiKeyHash(String apiKeyHash);
+
+    @Query("SELECT u FROM User u WHERE u.apiKeyId IS NULL AND u.apiKeyHash LIKE '$2%'")
+    List<User> findUsersWithLegacyApiKey();
+
+    @Modifying
+    @Query("UPDATE User u SET u.apiKeyHash = :replacement WHERE u.apiKeyId IS NULL AND u.apiKeyHash = :apiKeyHash")
+    int replaceLegacyApiKeyHash(@Param("apiKeyHash") String apiKeyHash, @Param("replacement") String replacement);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username FROM User u")
+    Stream<String> streamAllUsernames();
+}
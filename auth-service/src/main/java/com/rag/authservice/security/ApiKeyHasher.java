@@ -0,0 +1,130 @@
+package com.rag.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues and verifies API keys of the form {@code <keyId>.<secret>}.
+ * <p>
+ * The key id is public and indexed, so a key can be located with a single lookup. The secret is
+ * only ever stored as a keyed HMAC-SHA256 digest, which is cheap to recompute and compare in
+ * constant time, unlike a BCrypt hash that has to be checked against every row.
+ */
+@Component
+public class ApiKeyHasher {
+
+    public static final char KEY_ID_SEPARATOR = '.';
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_ID_BYTES = 8;
+    private static final int SECRET_BYTES = 32;
+    // Hashed into every row registered before keys were generated per user, so it identifies nobody
+    private static final String LEGACY_PLACEHOLDER_KEY = "default-api-key";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final SecretKeySpec pepperKey;
+    private final ThreadLocal<Mac> macs;
+
+    public ApiKeyHasher(@Value("${api-key.pepper:defaultApiKeyPepper1234567890}") String pepper) {
+        this.pepperKey = new SecretKeySpec(pepper.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Generates a new random, URL-safe key id
+     *
+     * @return the key id
+     */
+    public String generateKeyId() {
+        byte[] bytes = new byte[KEY_ID_BYTES];
+        secureRandom.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Generates a new random, URL-safe secret
+     *
+     * @return the secret
+     */
+    public String generateSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Builds the client-facing API key from its id and secret
+     *
+     * @param keyId  the public key id
+     * @param secret the secret part
+     * @return the API key
+     */
+    public String format(String keyId, String secret) {
+        return keyId + KEY_ID_SEPARATOR + secret;
+    }
+
+    /**
+     * Computes the keyed digest that is stored for a secret
+     *
+     * @param secret the secret to digest
+     * @return the hex encoded digest
+     */
+    public String digest(String secret) {
+        byte[] digest = macs.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    /**
+     * Checks a secret against a stored digest in constant time
+     *
+     * @param secret       the secret presented by the client
+     * @param storedDigest the stored digest
+     * @return true if the secret matches the digest
+     */
+    public boolean matches(String secret, String storedDigest) {
+        if (storedDigest == null) {
+            return false;
+        }
+        byte[] expected = storedDigest.getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = digest(secret).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Checks whether a key is the placeholder that used to be stored for every new user
+     *
+     * @param apiKey the API key presented by the client
+     * @return true if the key must never authenticate anyone
+     */
+    public boolean isLegacyPlaceholder(String apiKey) {
+        return LEGACY_PLACEHOLDER_KEY.equals(apiKey);
+    }
+
+    /**
+     * Returns the placeholder key, so rows that were migrated with it can be found by its digest
+     *
+     * @return the placeholder key
+     */
+    public String legacyPlaceholder() {
+        return LEGACY_PLACEHOLDER_KEY;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(pepperKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise API key digest", e);
+        }
+    }
+}
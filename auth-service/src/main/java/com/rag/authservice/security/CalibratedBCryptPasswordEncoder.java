@@ -0,0 +1,91 @@
+package com.rag.authservice.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCrypt encoder with a fleet-wide work factor, plus a calibration that tells whether that work
+ * factor fits a latency budget on the host it runs on.
+ * <p>
+ * The work factor comes from configuration rather than from calibration: a single timing is noisy,
+ * and replicas that settled on different costs would rehash the same user back and forth on every
+ * login. Hashes of any other cost are rehashed on login, so the strength can be raised or lowered
+ * without a mass migration.
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 31;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Getter
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Measures BCrypt on this host and finds the highest work factor whose hash time fits the budget.
+     * The result is only a diagnostic for choosing the configured strength.
+     *
+     * @param latencyBudget the time a single hash may take
+     * @param minStrength   the lowest acceptable work factor, returned even if it exceeds the budget
+     * @param maxStrength   the highest work factor to consider
+     * @return the highest work factor that fits the budget
+     */
+    public static int calibrate(Duration latencyBudget, int minStrength, int maxStrength) {
+        int min = Math.max(MIN_STRENGTH, minStrength);
+        int max = Math.min(MAX_STRENGTH, Math.max(min, maxStrength));
+        long budgetNanos = latencyBudget.toNanos();
+
+        // The first hash pays for class loading and JIT, so it is not measured
+        new BCryptPasswordEncoder(min).encode(CALIBRATION_PASSWORD);
+
+        int strength = min;
+        long nanos = measure(strength);
+        // Every step doubles the cost, so only try the next one if it is expected to fit
+        while (strength < max && nanos * 2 <= budgetNanos) {
+            long next = measure(strength + 1);
+            if (next > budgetNanos) {
+                break;
+            }
+            strength++;
+            nanos = next;
+        }
+
+        if (nanos > budgetNanos) {
+            log.warn("BCrypt work factor {} takes {} ms, above the {} ms budget", strength,
+                    Duration.ofNanos(nanos).toMillis(), latencyBudget.toMillis());
+        } else {
+            log.info("Calibrated BCrypt work factor {} ({} ms per hash, budget {} ms)", strength,
+                    Duration.ofNanos(nanos).toMillis(), latencyBudget.toMillis());
+        }
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // BCrypt hashes look like $2a$NN$..., where NN is the work factor
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
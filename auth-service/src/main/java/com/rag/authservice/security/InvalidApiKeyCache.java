@@ -0,0 +1,52 @@
+package com.rag.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived record of API keys that recently failed validation, keyed by their keyed digest.
+ * A repeated bad key is rejected without touching the database, which matters most for keys in
+ * the legacy format that would otherwise trigger a BCrypt scan every time.
+ */
+@Component
+public class InvalidApiKeyCache {
+
+    private final Cache<String, Boolean> invalidKeys;
+
+    public InvalidApiKeyCache(@Value("${api-key.negative-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${api-key.negative-cache.ttl:30s}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.invalidKeys = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidKeys, "api-key.invalid");
+    }
+
+    /**
+     * Checks whether a key recently failed validation
+     *
+     * @param digest the keyed digest of the API key
+     * @return true if the key is known to be invalid
+     */
+    public boolean isKnownInvalid(String digest) {
+        return invalidKeys.getIfPresent(digest) != null;
+    }
+
+    /**
+     * Records a key that failed validation
+     *
+     * @param digest the keyed digest of the API key
+     */
+    public void recordInvalid(String digest) {
+        invalidKeys.put(digest, Boolean.TRUE);
+    }
+}
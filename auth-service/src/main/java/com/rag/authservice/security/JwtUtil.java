@@ -1,12 +1,15 @@
 package com.rag.authservice.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
@@ -14,19 +17,32 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the service's JWTs. The signing key and parser are built once and are
+ * immutable, so they are shared by all threads instead of being rebuilt for every token.
+ */
 @Component
 public class JwtUtil {
 
-    // In a real production environment, this should be stored securely, possibly in a vault or env var
-    @Value("${jwt.secret:defaultSecretKey12345678901234567890}")
-    private String secret;
+    private static final String USER_ID_CLAIM = "userId";
 
-    @Value("${jwt.expiration:86400000}")
-    private long expiration; // 24 hours by default
+    private final Key key;
+    private final JwtParser parser;
+    private final long expiration;
+
+    // In a real production environment, the secret should be stored securely, possibly in a vault or env var
+    public JwtUtil(@Value("${jwt.secret:defaultSecretKey12345678901234567890}") String secret,
+                   @Value("${jwt.expiration:86400000}") long expiration) { // 24 hours by default
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.expiration = expiration;
+    }
 
     public String generateToken(String username, UUID userId) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId.toString());
+        claims.put(USER_ID_CLAIM, userId.toString());
         return createToken(claims, username);
     }
 
@@ -34,8 +50,6 @@ public class JwtUtil {
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + expiration);
 
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
-
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
@@ -45,6 +59,28 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Verifies a token with a single parse. The parser already rejects bad signatures and
+     * expired tokens, so no separate expiry check is needed.
+     *
+     * @param token the compact JWT
+     * @return the user ID and expiry, or null if the token is invalid, expired or has no user ID
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        if (userId == null || claims.getExpiration() == null) {
+            return null;
+        }
+        return new VerifiedToken(userId, claims.getExpiration().toInstant());
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -59,23 +95,10 @@ public class JwtUtil {
     }
 
     public Claims extractAllClaims(String token) {
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public Boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token) != null;
     }
-}
\ No newline at end of file
+}
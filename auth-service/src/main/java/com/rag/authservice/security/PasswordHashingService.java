@@ -0,0 +1,141 @@
+package com.rag.authservice.security;
+
+import com.rag.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated pool sized to the number of cores, so a login storm is
+ * limited to the CPU it can actually use and cannot starve cheap requests such as token
+ * validation. When the queue is full the request is refused immediately with a
+ * {@link ServiceOverloadedException} instead of waiting behind work that will not finish in time.
+ */
+@Component
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService executor;
+    private final Duration retryAfter;
+    private final Timer encodeQueueTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesQueueTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${password-hashing.pool-size:0}") int poolSize,
+                                  @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${password-hashing.retry-after:2s}") Duration retryAfter,
+                                  MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfter = retryAfter;
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        new CustomizableThreadFactory("password-hashing-"),
+                        new ThreadPoolExecutor.AbortPolicy()),
+                "password-hashing");
+
+        this.encodeQueueTimer = queueTimer(meterRegistry, "encode");
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesQueueTimer = queueTimer(meterRegistry, "matches");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        log.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool
+     *
+     * @param rawPassword the password to hash
+     * @return the encoded password
+     * @throws ServiceOverloadedException if the hashing queue is full
+     */
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeQueueTimer, encodeTimer);
+    }
+
+    /**
+     * Checks a raw password against an encoded one on the hashing pool
+     *
+     * @param rawPassword     the password presented by the client
+     * @param encodedPassword the stored password hash
+     * @return true if the password matches
+     * @throws ServiceOverloadedException if the hashing queue is full
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesQueueTimer, matchesTimer);
+    }
+
+    /**
+     * Checks whether a stored hash was made with a different encoder or work factor than the
+     * current one and should be replaced the next time the raw password is known
+     *
+     * @param encodedPassword the stored password hash
+     * @return true if the password should be rehashed
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Supplier<T> task, Timer queueTimer, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceOverloadedException("Too many concurrent authentication requests", retryAfter, e);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static Timer queueTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hashing.queue")
+                .description("Time password hashing tasks wait for a free thread")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hashing.execution")
+                .description("Time spent hashing or checking a password")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
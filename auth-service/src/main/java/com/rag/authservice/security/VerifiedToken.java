@@ -0,0 +1,9 @@
+package com.rag.authservice.security;
+
+import java.time.Instant;
+
+/**
+ * Result of verifying a JWT: the user it was issued to and when it expires
+ */
+public record VerifiedToken(String userId, Instant expiresAt) {
+}
@@ -0,0 +1,17 @@
+package com.rag.authservice.service;
+
+import com.rag.authservice.dto.CredentialDto;
+import com.rag.authservice.dto.CredentialValidationResultDto;
+
+import java.util.List;
+
+public interface CredentialValidationService {
+
+    /**
+     * Validates a batch of tokens and API keys in parallel
+     *
+     * @param credentials the credentials to validate
+     * @return one result per credential, in the same order as the input
+     */
+    List<CredentialValidationResultDto> validateAll(List<CredentialDto> credentials);
+}
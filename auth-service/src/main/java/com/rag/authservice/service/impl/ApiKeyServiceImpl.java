@@ -1,15 +1,25 @@
 package com.rag.authservice.service.impl;
 
+import com.rag.authservice.cache.UsernameBloomFilter;
 import com.rag.authservice.dto.ApiKeyResponseDto;
+import com.rag.authservice.event.CredentialEventProducer;
 import com.rag.authservice.exception.ResourceNotFoundException;
 import com.rag.authservice.model.User;
 import com.rag.authservice.repository.UserRepository;
+import com.rag.authservice.security.ApiKeyHasher;
+import com.rag.authservice.security.InvalidApiKeyCache;
+import com.rag.authservice.security.PasswordHashingService;
 import com.rag.authservice.service.ApiKeyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.UUID;
 
@@ -20,12 +30,23 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final ApiKeyHasher apiKeyHasher;
+    private final InvalidApiKeyCache invalidApiKeyCache;
+    private final CredentialEventProducer eventProducer;
+    private final UsernameBloomFilter usernameBloomFilter;
 
+    // Keys issued before key ids existed can only be found by checking every BCrypt hash.
+    // Off unless configured, and to be disabled once all clients have rotated to <keyId>.<secret>.
+    @Value("${api-key.legacy-scan-enabled:false}")
+    private boolean legacyScanEnabled;
+
+    // Not transactional, so a new user's password is never hashed while a connection is held
     @Override
-    @Transactional
     public ApiKeyResponseDto generateApiKey(String username) {
-        String apiKey = UUID.randomUUID().toString();
-        String hashedApiKey = passwordEncoder.encode(apiKey);
+        String keyId = apiKeyHasher.generateKeyId();
+        String secret = apiKeyHasher.generateSecret();
+        String apiKey = apiKeyHasher.format(keyId, secret);
 
         User user = userRepository.findByUsername(username)
                 .orElseGet(() -> {
@@ -33,31 +54,48 @@ public class ApiKeyServiceImpl implements ApiKeyService {
                     newUser.setUsername(username);
                     // Set default values for new fields - these should be properly set by an auth controller
                     newUser.setEmail(username + "@example.com");
-                    newUser.setPassword(passwordEncoder.encode("default"));
+                    newUser.setPassword(passwordHashingService.encode("default"));
                     return newUser;
                 });
 
-        user.setApiKeyHash(hashedApiKey);
+        user.setApiKeyId(keyId);
+        user.setApiKeyHash(apiKeyHasher.digest(secret));
         User savedUser = userRepository.save(user);
+        usernameBloomFilter.put(savedUser.getUsername());
 
         log.info("Generated API key for user: {}", username);
         return new ApiKeyResponseDto(savedUser.getId(), apiKey, savedUser.getUsername());
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public String validateApiKey(String apiKey) {
         log.info("Validating API key");
 
-        for (User user : userRepository.findAll()) {
-            if (passwordEncoder.matches(apiKey, user.getApiKeyHash())) {
-                log.info("API key is valid for user: {}", user.getUsername());
-                return user.getId().toString();
-            }
+        if (apiKey == null || apiKey.isBlank() || apiKeyHasher.isLegacyPlaceholder(apiKey)) {
+            log.info("API key is invalid");
+            return null;
         }
 
-        log.info("API key is invalid");
-        return null;
+        String apiKeyDigest = apiKeyHasher.digest(apiKey);
+        if (invalidApiKeyCache.isKnownInvalid(apiKeyDigest)) {
+            log.debug("API key was rejected recently");
+            return null;
+        }
+
+        int separator = apiKey.indexOf(ApiKeyHasher.KEY_ID_SEPARATOR);
+        User user = separator > 0
+                ? findByKeyIdAndSecret(apiKey.substring(0, separator), apiKey.substring(separator + 1))
+                : findByLegacyApiKey(apiKey, apiKeyDigest);
+
+        if (user == null) {
+            invalidApiKeyCache.recordInvalid(apiKeyDigest);
+            log.info("API key is invalid");
+            return null;
+        }
+
+        log.info("API key is valid for user: {}", user.getUsername());
+        return user.getId().toString();
     }
 
     @Override
@@ -68,5 +106,71 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
         userRepository.delete(user);
         log.info("Revoked API key for user: {}", user.getUsername());
+
+        // A gateway that re-validates on this event must no longer find the user
+        afterCommit(() -> eventProducer.sendApiKeyRevokedEvent(userId));
+    }
+
+    /**
+     * Placeholder keys that were already migrated to the keyed digest can be found by that digest,
+     * so they are replaced with an unusable one. Placeholders still stored as BCrypt hashes were
+     * replaced by the V3 migration, which keeps them out of the legacy scan.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void invalidateMigratedPlaceholderKeys() {
+        String placeholderDigest = apiKeyHasher.digest(apiKeyHasher.legacyPlaceholder());
+        int invalidated = userRepository.replaceLegacyApiKeyHash(
+                placeholderDigest, apiKeyHasher.digest(apiKeyHasher.generateSecret()));
+        if (invalidated > 0) {
+            log.warn("Invalidated {} migrated placeholder API keys", invalidated);
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, so services that react to it
+     * cannot read the data as it was before
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private User findByKeyIdAndSecret(String keyId, String secret) {
+        return userRepository.findByApiKeyId(keyId)
+                .filter(user -> apiKeyHasher.matches(secret, user.getApiKeyHash()))
+                .orElse(null);
+    }
+
+    /**
+     * Resolves a key issued before key ids existed. Once a legacy key has been matched its BCrypt
+     * hash is replaced by the keyed digest, so later checks are a single indexed lookup.
+     */
+    private User findByLegacyApiKey(String apiKey, String digest) {
+        User migratedUser = userRepository.findFirstByApiKeyHash(digest)
+                .filter(user -> user.getApiKeyId() == null)
+                .orElse(null);
+        if (migratedUser != null || !legacyScanEnabled) {
+            return migratedUser;
+        }
+
+        for (User user : userRepository.findUsersWithLegacyApiKey()) {
+            if (passwordEncoder.matches(apiKey, user.getApiKeyHash())) {
+                user.setApiKeyHash(digest);
+                userRepository.save(user);
+                log.info("Migrated legacy API key for user: {}", user.getUsername());
+                return user;
+            }
+        }
+
+        return null;
     }
 }
\ No newline at end of file
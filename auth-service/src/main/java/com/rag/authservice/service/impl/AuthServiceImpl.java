@@ -2,17 +2,21 @@ package com.rag.authservice.service.impl;
 
 import com.rag.authservice.dto.AuthRequestDto;
 import com.rag.authservice.dto.AuthResponseDto;
+import com.rag.authservice.cache.UsernameBloomFilter;
 import com.rag.authservice.dto.RegisterRequestDto;
 import com.rag.authservice.exception.ResourceNotFoundException;
 import com.rag.authservice.model.User;
 import com.rag.authservice.repository.UserRepository;
+import com.rag.authservice.security.ApiKeyHasher;
 import com.rag.authservice.security.JwtUtil;
+import com.rag.authservice.security.PasswordHashingService;
+import com.rag.authservice.security.VerifiedToken;
 import com.rag.authservice.service.AuthService;
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,28 +25,45 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class AuthServiceImpl implements AuthService {
 
+    // Name PostgreSQL gives the UNIQUE constraint on users.username
+    private static final String USERNAME_UNIQUE_CONSTRAINT = "users_username_key";
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final ApiKeyHasher apiKeyHasher;
+    private final UsernameBloomFilter usernameBloomFilter;
 
+    // No surrounding transaction: BCrypt must not run while a pooled connection is held, so each
+    // repository call below commits on its own
     @Override
-    @Transactional
     public AuthResponseDto register(RegisterRequestDto request) {
-        // Check if username already exists
-        if (userRepository.findByUsername(request.getUsername()).isPresent()) {
+        // Check if username already exists; the Bloom filter rules out most new usernames without a query
+        if (usernameBloomFilter.mightContain(request.getUsername())
+                && userRepository.findByUsername(request.getUsername()).isPresent()) {
             log.warn("Username '{}' already exists", request.getUsername());
             throw new IllegalArgumentException("Username already exists");
         }
 
-        // Create new user with API key hash initialized to empty
+        // Create new user with an unusable API key digest until a key is generated
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setApiKeyHash(passwordEncoder.encode("default-api-key"));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
+        user.setApiKeyHash(apiKeyHasher.digest(apiKeyHasher.generateSecret()));
 
-        // Save user
-        User savedUser = userRepository.save(user);
+        // Save user; the unique constraint catches usernames the Bloom filter has not seen yet
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isUsernameConflict(e)) {
+                throw e;
+            }
+            log.warn("Username '{}' already exists", request.getUsername());
+            throw new IllegalArgumentException("Username already exists");
+        }
+        usernameBloomFilter.put(savedUser.getUsername());
         log.info("User registered: {}", savedUser.getUsername());
 
         // Generate JWT token
@@ -51,8 +72,8 @@ public class AuthServiceImpl implements AuthService {
         return new AuthResponseDto(savedUser.getId(), savedUser.getUsername(), token);
     }
 
+    // Not transactional for the same reason as register
     @Override
-    @Transactional(readOnly = true)
     public AuthResponseDto authenticate(AuthRequestDto request) {
         // Find user by username
         User user = userRepository.findByUsername(request.getUsername())
@@ -62,11 +83,18 @@ public class AuthServiceImpl implements AuthService {
                 });
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             log.warn("Invalid password for user: {}", user.getUsername());
             throw new BadCredentialsException("Invalid credentials");
         }
 
+        // Upgrade hashes made with an older encoder or work factor while the raw password is at hand
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            userRepository.save(user);
+            log.info("Rehashed password for user: {}", user.getUsername());
+        }
+
         // Generate JWT token
         String token = jwtUtil.generateToken(user.getUsername(), user.getId());
         log.info("User authenticated: {}", user.getUsername());
@@ -82,20 +110,25 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public String extractUserIdFromToken(String token) {
-        try {
-            if (!jwtUtil.validateToken(token)) {
-                return null;
-            }
+        VerifiedToken verified = jwtUtil.verify(token);
+        if (verified == null) {
+            log.info("Token is invalid or expired");
+            return null;
+        }
 
-            // Extract userId from token claims
-            Claims claims = jwtUtil.extractAllClaims(token);
-            String userId = claims.get("userId", String.class);
+        log.info("Extracted user ID from token: {}", verified.userId());
+        return verified.userId();
+    }
 
-            log.info("Extracted user ID from token: {}", userId);
-            return userId;
-        } catch (Exception e) {
-            log.error("Error extracting user ID from token: {}", e.getMessage());
-            return null;
+    /**
+     * Tells a duplicate username apart from other violations, such as an email that is too long
+     */
+    private static boolean isUsernameConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return USERNAME_UNIQUE_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+            }
         }
+        return false;
     }
-}
\ No newline at end of file
+}
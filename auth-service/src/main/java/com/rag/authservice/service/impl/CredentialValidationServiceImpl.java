@@ -0,0 +1,51 @@
+package com.rag.authservice.service.impl;
+
+import com.rag.authservice.dto.CredentialDto;
+import com.rag.authservice.dto.CredentialType;
+import com.rag.authservice.dto.CredentialValidationResultDto;
+import com.rag.authservice.service.ApiKeyService;
+import com.rag.authservice.service.AuthService;
+import com.rag.authservice.service.CredentialValidationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialValidationServiceImpl implements CredentialValidationService {
+
+    private final AuthService authService;
+    private final ApiKeyService apiKeyService;
+    private final ThreadPoolTaskExecutor credentialValidationExecutor;
+
+    @Override
+    public List<CredentialValidationResultDto> validateAll(List<CredentialDto> credentials) {
+        List<CompletableFuture<CredentialValidationResultDto>> futures = credentials.stream()
+                .map(credential -> CompletableFuture.supplyAsync(() -> validate(credential), credentialValidationExecutor))
+                .toList();
+
+        List<CredentialValidationResultDto> results = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        log.info("Validated batch of {} credentials", credentials.size());
+        return results;
+    }
+
+    private CredentialValidationResultDto validate(CredentialDto credential) {
+        try {
+            String userId = credential.getType() == CredentialType.API_KEY
+                    ? apiKeyService.validateApiKey(credential.getValue())
+                    : authService.extractUserIdFromToken(credential.getValue());
+            return new CredentialValidationResultDto(userId != null, userId);
+        } catch (Exception e) {
+            log.error("Error validating credential in batch: {}", e.getMessage());
+            return new CredentialValidationResultDto(false, null);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- API keys are issued as <key id>.<secret>. The key id is public and used to locate the user,
+-- the secret is stored in api_key_hash as a keyed HMAC-SHA256 digest instead of a BCrypt hash.
+-- Rows without a key id still hold a BCrypt hash of a legacy key until that key is next used.
+ALTER TABLE users ADD COLUMN api_key_id VARCHAR(32);
+
+CREATE UNIQUE INDEX idx_users_api_key_id ON users(api_key_id);
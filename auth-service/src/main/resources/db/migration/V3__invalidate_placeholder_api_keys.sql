@@ -0,0 +1,12 @@
+-- Users registered before keys were generated per user all hold a BCrypt hash of the same
+-- placeholder key. Those rows would otherwise stay in the legacy API key scan, where every unknown
+-- key costs one BCrypt check per row. They are given a random digest that no key matches, so the
+-- scan only covers keys that were actually issued. Spring's BCrypt encoder wrote $2a$ hashes,
+-- the only BCrypt variant pgcrypto reads.
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+UPDATE users
+SET api_key_hash = encode(gen_random_bytes(32), 'hex')
+WHERE api_key_id IS NULL
+  AND api_key_hash LIKE '$2a$%'
+  AND crypt('default-api-key', api_key_hash) = api_key_hash;
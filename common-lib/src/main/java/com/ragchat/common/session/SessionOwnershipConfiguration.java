@@ -0,0 +1,108 @@
+package com.ragchat.common.session;
+
+import com.ragchat.common.event.SessionEvent;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.kafka.clients.consumer.ConsumerConfig.*;
+
+/**
+ * Local session ownership checks for services that write data belonging to a session. Import it
+ * and inject {@link SessionOwnershipVerifier}.
+ * <p>
+ * Every instance replays the whole session-events topic into its own {@link SessionOwnershipIndex},
+ * so it needs a consumer group of its own that starts from the earliest offset. Sessions the index
+ * does not know are looked up in session-service through the load-balanced client.
+ */
+@Configuration
+public class SessionOwnershipConfiguration {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public SessionOwnershipIndex sessionOwnershipIndex(
+            @Value("${session-ownership.expected-sessions:100000}") int expectedSessions) {
+        return new SessionOwnershipIndex(expectedSessions);
+    }
+
+    @Bean
+    public SessionOwnershipReplay sessionOwnershipReplay(SessionOwnershipIndex sessionOwnershipIndex) {
+        return new SessionOwnershipReplay(sessionOwnershipIndex);
+    }
+
+    @Bean
+    public SessionOwnershipListener sessionOwnershipListener(SessionOwnershipIndex sessionOwnershipIndex,
+                                                             SessionOwnershipReplay sessionOwnershipReplay) {
+        return new SessionOwnershipListener(sessionOwnershipIndex, sessionOwnershipReplay);
+    }
+
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder sessionServiceRestClientBuilder() {
+        return RestClient.builder();
+    }
+
+    @Bean
+    public SessionServiceClient sessionServiceClient(
+            RestClient.Builder sessionServiceRestClientBuilder,
+            @Value("${session-ownership.lookup-timeout:1s}") Duration lookupTimeout) {
+        return new SessionServiceClient(sessionServiceRestClientBuilder, lookupTimeout);
+    }
+
+    @Bean
+    public SessionOwnershipVerifier sessionOwnershipVerifier(
+            SessionOwnershipIndex sessionOwnershipIndex,
+            SessionServiceClient sessionServiceClient,
+            @Value("${session-ownership.await-timeout:250ms}") Duration awaitTimeout) {
+        return new SessionOwnershipVerifier(sessionOwnershipIndex, sessionServiceClient, awaitTimeout);
+    }
+
+    @Bean
+    public ConsumerFactory<String, SessionEvent> sessionOwnershipConsumerFactory(
+            @Value("${session-ownership.group-id:${spring.application.name}-ownership-${random.uuid}}") String groupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(GROUP_ID_CONFIG, groupId);
+        props.put(AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(MAX_POLL_RECORDS_CONFIG, 2000);
+
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, SessionEvent.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.ragchat.common.event,com.rag.sessionservice.event");
+        props.put(JsonDeserializer.TYPE_MAPPINGS, "com.rag.sessionservice.event.SessionEvent:com.ragchat.common.event.SessionEvent");
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SessionEvent> sessionOwnershipListenerContainerFactory(
+            ConsumerFactory<String, SessionEvent> sessionOwnershipConsumerFactory,
+            SessionOwnershipReplay sessionOwnershipReplay) {
+        ConcurrentKafkaListenerContainerFactory<String, SessionEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(sessionOwnershipConsumerFactory);
+        factory.setBatchListener(true);
+        // One consumer for all partitions, so it alone can tell when the replay has caught up
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setConsumerRebalanceListener(sessionOwnershipReplay);
+        return factory;
+    }
+}
@@ -0,0 +1,357 @@
+package com.ragchat.common.session;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Local sessionId to userId map for answering ownership checks without calling session-service.
+ * <p>
+ * Built by replaying the session-events topic. Entries are stored in one open-addressing table of
+ * primitive longs, four per slot (the two halves of each UUID), with linear probing and
+ * backward-shift deletion, which takes about a third of the memory of a {@code HashMap<UUID, UUID>}
+ * and creates no garbage on lookups. Reads are optimistic under a {@link StampedLock} and only
+ * fall back to a read lock if a write raced with them.
+ * <p>
+ * A session created moments ago may not have reached the index yet, so checks can wait briefly
+ * for it to appear. A session that is still unknown after that, such as one created before the
+ * topic held its events, is reported as {@link Ownership#UNKNOWN} for the caller to look up
+ * elsewhere and add here with {@link #putIfNotRemovedSince}, so that an answer which raced with a
+ * deletion does not bring the session back.
+ */
+public class SessionOwnershipIndex {
+
+    public enum Ownership {
+        /** The session exists and belongs to the user */
+        OWNED,
+        /** The session belongs to someone else */
+        NOT_OWNED,
+        /** The session is not in the index, or the index has not finished replaying session-events */
+        UNKNOWN
+    }
+
+    private static final int SLOT_WIDTH = 4;
+    private static final int MIN_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.6;
+    private static final int REMOVAL_STRIPES = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private final Object changed = new Object();
+    // Removals counted per hash stripe, so a lookup can tell whether its session may have been deleted meanwhile
+    private final long[] removals = new long[REMOVAL_STRIPES];
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private volatile boolean ready;
+
+    public SessionOwnershipIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    public SessionOwnershipIndex(int expectedSessions) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, (int) (expectedSessions / MAX_LOAD)) - 1) << 1;
+        this.table = new long[capacity * SLOT_WIDTH];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Records the owner of a session
+     *
+     * @param sessionId the session ID
+     * @param userId    the owner's user ID
+     */
+    public void put(UUID sessionId, UUID userId) {
+        long keyHigh = sessionId.getMostSignificantBits();
+        long keyLow = sessionId.getLeastSignificantBits();
+        if (keyHigh == 0 && keyLow == 0) {
+            // The nil UUID marks empty slots
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            insert(keyHigh, keyLow, userId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        signalChange();
+    }
+
+    /**
+     * Records the owner of a session that was looked up elsewhere, unless the session may have
+     * been removed since {@link #removalStamp} was taken
+     *
+     * @param sessionId    the session ID
+     * @param userId       the owner's user ID
+     * @param removalStamp the stamp taken before the lookup
+     * @return true if the owner was recorded
+     */
+    public boolean putIfNotRemovedSince(UUID sessionId, UUID userId, long removalStamp) {
+        long keyHigh = sessionId.getMostSignificantBits();
+        long keyLow = sessionId.getLeastSignificantBits();
+        if (keyHigh == 0 && keyLow == 0) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            if (removals[removalStripe(keyHigh, keyLow)] != removalStamp) {
+                return false;
+            }
+            insert(keyHigh, keyLow, userId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        signalChange();
+        return true;
+    }
+
+    /**
+     * Takes a stamp to pass to {@link #putIfNotRemovedSince} once a lookup elsewhere has answered
+     *
+     * @param sessionId the session ID
+     * @return the stamp
+     */
+    public long removalStamp(UUID sessionId) {
+        long stamp = lock.readLock();
+        try {
+            return removals[removalStripe(sessionId.getMostSignificantBits(), sessionId.getLeastSignificantBits())];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Forgets a session
+     *
+     * @param sessionId the session ID
+     */
+    public void remove(UUID sessionId) {
+        long keyHigh = sessionId.getMostSignificantBits();
+        long keyLow = sessionId.getLeastSignificantBits();
+
+        long stamp = lock.writeLock();
+        try {
+            // Counted even when the session is not here, since a lookup for it may be under way
+            removals[removalStripe(keyHigh, keyLow)]++;
+            int slot = findSlot(table, mask, keyHigh, keyLow);
+            if (isEmpty(table, slot)) {
+                return;
+            }
+            size--;
+
+            // Shift later entries of the probe sequence back so lookups never stop at a gap too early
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (!isEmpty(table, next)) {
+                int home = home(table[next * SLOT_WIDTH], table[next * SLOT_WIDTH + 1], mask);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    System.arraycopy(table, next * SLOT_WIDTH, table, gap * SLOT_WIDTH, SLOT_WIDTH);
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            int base = gap * SLOT_WIDTH;
+            table[base] = 0;
+            table[base + 1] = 0;
+            table[base + 2] = 0;
+            table[base + 3] = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks whether a user owns a session, without waiting
+     *
+     * @param sessionId the session ID
+     * @param userId    the user ID
+     * @return true if the session is known and belongs to the user
+     */
+    public boolean isOwnedBy(UUID sessionId, UUID userId) {
+        long keyHigh = sessionId.getMostSignificantBits();
+        long keyLow = sessionId.getLeastSignificantBits();
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long[] current = table;
+            int currentMask = mask;
+            if (current.length == (currentMask + 1) * SLOT_WIDTH) {
+                int found = lookup(current, currentMask, keyHigh, keyLow, userId);
+                if (lock.validate(stamp)) {
+                    return found > 0;
+                }
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return lookup(table, mask, keyHigh, keyLow, userId) > 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks whether a user owns a session, waiting up to a timeout for a session that is not
+     * known yet. Before the index is ready it answers {@link Ownership#UNKNOWN} right away, since
+     * a deletion may not have been replayed yet either.
+     *
+     * @param sessionId the session ID
+     * @param userId    the user ID
+     * @param timeout   how long to wait for an unknown session
+     * @return the answer
+     */
+    public Ownership check(UUID sessionId, UUID userId, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            if (!ready) {
+                return Ownership.UNKNOWN;
+            }
+            if (isOwnedBy(sessionId, userId)) {
+                return Ownership.OWNED;
+            }
+            if (contains(sessionId)) {
+                // Owners never change, so there is nothing to wait for
+                return Ownership.NOT_OWNED;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return Ownership.UNKNOWN;
+            }
+            synchronized (changed) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(changed, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return Ownership.UNKNOWN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a session is known
+     *
+     * @param sessionId the session ID
+     * @return true if the session is in the index
+     */
+    public boolean contains(UUID sessionId) {
+        long stamp = lock.readLock();
+        try {
+            return !isEmpty(table, findSlot(table, mask, sessionId.getMostSignificantBits(),
+                    sessionId.getLeastSignificantBits()));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Marks the index as caught up with session-events
+     */
+    public void markReady() {
+        ready = true;
+        signalChange();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void signalChange() {
+        synchronized (changed) {
+            changed.notifyAll();
+        }
+    }
+
+    private void insert(long keyHigh, long keyLow, UUID userId) {
+        if (size + 1 > (mask + 1) * MAX_LOAD) {
+            resize();
+        }
+        int slot = findSlot(table, mask, keyHigh, keyLow);
+        int base = slot * SLOT_WIDTH;
+        if (table[base] == 0 && table[base + 1] == 0) {
+            size++;
+        }
+        table[base] = keyHigh;
+        table[base + 1] = keyLow;
+        table[base + 2] = userId.getMostSignificantBits();
+        table[base + 3] = userId.getLeastSignificantBits();
+    }
+
+    private void resize() {
+        long[] old = table;
+        int newCapacity = (mask + 1) * 2;
+        long[] resized = new long[newCapacity * SLOT_WIDTH];
+        int newMask = newCapacity - 1;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (!isEmpty(old, slot)) {
+                int base = slot * SLOT_WIDTH;
+                int target = findSlot(resized, newMask, old[base], old[base + 1]);
+                System.arraycopy(old, base, resized, target * SLOT_WIDTH, SLOT_WIDTH);
+            }
+        }
+        table = resized;
+        mask = newMask;
+    }
+
+    /**
+     * Probes for a session, tolerating a table that is being changed concurrently
+     *
+     * @return 1 if owned by the user, 0 if not, -1 if not found
+     */
+    private static int lookup(long[] table, int mask, long keyHigh, long keyLow, UUID userId) {
+        int slot = home(keyHigh, keyLow, mask);
+        // Bounded, so a torn read during an optimistic lookup cannot spin forever
+        for (int probes = 0; probes <= mask; probes++) {
+            int base = slot * SLOT_WIDTH;
+            long high = table[base];
+            long low = table[base + 1];
+            if (high == keyHigh && low == keyLow) {
+                return table[base + 2] == userId.getMostSignificantBits()
+                        && table[base + 3] == userId.getLeastSignificantBits() ? 1 : 0;
+            }
+            if (high == 0 && low == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int findSlot(long[] table, int mask, long keyHigh, long keyLow) {
+        int slot = home(keyHigh, keyLow, mask);
+        while (true) {
+            int base = slot * SLOT_WIDTH;
+            if ((table[base] == keyHigh && table[base + 1] == keyLow) || (table[base] == 0 && table[base + 1] == 0)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static boolean isEmpty(long[] table, int slot) {
+        return table[slot * SLOT_WIDTH] == 0 && table[slot * SLOT_WIDTH + 1] == 0;
+    }
+
+    private static int removalStripe(long keyHigh, long keyLow) {
+        return home(keyHigh, keyLow, REMOVAL_STRIPES - 1);
+    }
+
+    static int home(long keyHigh, long keyLow, int mask) {
+        long hash = (keyHigh ^ keyLow) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ragchat.common.session;
+
+import com.ragchat.common.event.SessionEvent;
+import com.ragchat.common.event.SessionEventType;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+
+import java.util.List;
+
+/**
+ * Replays session-events into the local {@link SessionOwnershipIndex}
+ */
+public class SessionOwnershipListener {
+
+    static final String LISTENER_ID = "session-ownership";
+
+    private final SessionOwnershipIndex ownershipIndex;
+    private final SessionOwnershipReplay replay;
+
+    public SessionOwnershipListener(SessionOwnershipIndex ownershipIndex, SessionOwnershipReplay replay) {
+        this.ownershipIndex = ownershipIndex;
+        this.replay = replay;
+    }
+
+    /**
+     * Applies session events to the local ownership index
+     *
+     * @param events   list of session events
+     * @param consumer the replaying consumer
+     */
+    @KafkaListener(id = LISTENER_ID, topics = "session-events", containerFactory = "sessionOwnershipListenerContainerFactory")
+    public void handleSessionEvents(@Payload List<SessionEvent> events, Consumer<?, ?> consumer) {
+        for (SessionEvent event : events) {
+            if (event == null || event.getSessionId() == null) {
+                continue;
+            }
+            if (event.getType() == SessionEventType.DELETED) {
+                ownershipIndex.remove(event.getSessionId());
+            } else if (event.getUserId() != null) {
+                ownershipIndex.put(event.getSessionId(), event.getUserId());
+            }
+        }
+        replay.recordProgress(consumer);
+    }
+}
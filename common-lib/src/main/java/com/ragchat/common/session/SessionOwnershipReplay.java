@@ -0,0 +1,71 @@
+package com.ragchat.common.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Marks a {@link SessionOwnershipIndex} ready once the replay of session-events has reached the
+ * end offsets the partitions had when they were assigned.
+ * <p>
+ * Register it as the consumer rebalance listener of the replaying container and call
+ * {@link #recordProgress(Consumer)} after every batch. Unlike waiting for the container to go
+ * idle, this also works on a topic that never stops receiving events. The replaying container
+ * must have a single consumer, so that one consumer sees every partition.
+ */
+@Slf4j
+public class SessionOwnershipReplay implements ConsumerAwareRebalanceListener {
+
+    private final SessionOwnershipIndex index;
+    private final Map<TopicPartition, Long> endOffsets = new ConcurrentHashMap<>();
+
+    public SessionOwnershipReplay(SessionOwnershipIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        endOffsets.putAll(consumer.endOffsets(partitions));
+        // Partitions that are already read to the end deliver no batch to check on
+        recordProgress(consumer);
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(endOffsets::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(endOffsets::remove);
+    }
+
+    /**
+     * Marks the index ready if the consumer has reached the end offsets of all its partitions
+     *
+     * @param consumer the replaying consumer, on its own thread
+     */
+    public void recordProgress(Consumer<?, ?> consumer) {
+        if (index.isReady()) {
+            return;
+        }
+        Set<TopicPartition> assignment = consumer.assignment();
+        if (assignment.isEmpty()) {
+            return;
+        }
+        for (TopicPartition partition : assignment) {
+            Long endOffset = endOffsets.get(partition);
+            if (endOffset == null || consumer.position(partition) < endOffset) {
+                return;
+            }
+        }
+        index.markReady();
+        log.info("Session ownership index ready with {} sessions", index.size());
+    }
+}
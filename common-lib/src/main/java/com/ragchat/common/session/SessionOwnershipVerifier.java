@@ -0,0 +1,51 @@
+package com.ragchat.common.session;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Checks the local ownership index instead of calling session-service on every write. Only
+ * sessions the index does not know, such as ones created before session-events kept them or any
+ * session while the index is loading, are looked up in session-service.
+ * <p>
+ * A check may wait or call session-service, so callers should not hold a database connection
+ * while making it.
+ */
+public class SessionOwnershipVerifier {
+
+    private final SessionOwnershipIndex ownershipIndex;
+    private final SessionServiceClient sessionServiceClient;
+    private final Duration awaitTimeout;
+
+    public SessionOwnershipVerifier(SessionOwnershipIndex ownershipIndex,
+                                    SessionServiceClient sessionServiceClient,
+                                    Duration awaitTimeout) {
+        this.ownershipIndex = ownershipIndex;
+        this.sessionServiceClient = sessionServiceClient;
+        this.awaitTimeout = awaitTimeout;
+    }
+
+    /**
+     * Checks whether a user owns a session
+     *
+     * @param sessionId the session ID
+     * @param userId    the user ID
+     * @return true if the session exists and belongs to the user
+     * @throws SessionServiceUnavailableException if the index cannot answer and session-service cannot be asked
+     */
+    public boolean isOwnedBy(UUID sessionId, UUID userId) {
+        return switch (ownershipIndex.check(sessionId, userId, awaitTimeout)) {
+            case OWNED -> true;
+            case NOT_OWNED -> false;
+            case UNKNOWN -> {
+                long removalStamp = ownershipIndex.removalStamp(sessionId);
+                boolean owned = sessionServiceClient.isOwnedBy(sessionId, userId);
+                if (owned) {
+                    // Later writes to the session are answered locally, unless it was deleted meanwhile
+                    ownershipIndex.putIfNotRemovedSince(sessionId, userId, removalStamp);
+                }
+                yield owned;
+            }
+        };
+    }
+}
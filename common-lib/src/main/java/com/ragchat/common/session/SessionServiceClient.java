@@ -0,0 +1,55 @@
+package com.ragchat.common.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Asks session-service about sessions the local ownership index does not know
+ */
+@Slf4j
+public class SessionServiceClient {
+
+    private static final String SESSION_URI = "http://session-service/api/sessions/{id}";
+
+    private final RestClient restClient;
+
+    public SessionServiceClient(RestClient.Builder sessionServiceRestClientBuilder, Duration lookupTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(lookupTimeout);
+        requestFactory.setReadTimeout(lookupTimeout);
+        this.restClient = sessionServiceRestClientBuilder
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * Checks whether a user owns a session
+     *
+     * @param sessionId the session ID
+     * @param userId    the user ID
+     * @return true if the session exists and belongs to the user
+     * @throws SessionServiceUnavailableException if session-service cannot be asked
+     */
+    public boolean isOwnedBy(UUID sessionId, UUID userId) {
+        try {
+            restClient.get()
+                    .uri(SESSION_URI, sessionId)
+                    .header("X-User-ID", userId.toString())
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (HttpClientErrorException.NotFound e) {
+            // Sessions of other users are not found either
+            return false;
+        } catch (RestClientException e) {
+            log.warn("Failed to look up session {} in session-service: {}", sessionId, e.getMessage());
+            throw new SessionServiceUnavailableException("Session service is unavailable");
+        }
+    }
+}
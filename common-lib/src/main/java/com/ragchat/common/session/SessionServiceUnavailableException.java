@@ -0,0 +1,12 @@
+package com.ragchat.common.session;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SessionServiceUnavailableException extends RuntimeException {
+
+    public SessionServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,257 @@
+package com.ragchat.common.session;
+
+import com.ragchat.common.session.SessionOwnershipIndex.Ownership;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionOwnershipIndexTest {
+
+    // The smallest table the index creates
+    private static final int MASK = 1023;
+
+    @Test
+    void answersOwnershipOfKnownSessions() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        index.put(session, owner);
+
+        assertThat(index.isOwnedBy(session, owner)).isTrue();
+        assertThat(index.isOwnedBy(session, UUID.randomUUID())).isFalse();
+        assertThat(index.isOwnedBy(UUID.randomUUID(), owner)).isFalse();
+        assertThat(index.contains(session)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void putOfKnownSessionReplacesOwner() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        index.put(session, UUID.randomUUID());
+        index.put(session, owner);
+
+        assertThat(index.isOwnedBy(session, owner)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresNilSession() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+
+        index.put(new UUID(0, 0), UUID.randomUUID());
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void keepsProbeChainIntactWhenRemovingFromIt() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        List<UUID> sameHome = sessionsWithHome(100, 3);
+        UUID nextHome = sessionsWithHome(101, 1).get(0);
+        UUID owner = UUID.randomUUID();
+        // Slots 100..103: the three sessions of home 100 push the one of home 101 to the end
+        sameHome.forEach(session -> index.put(session, owner));
+        index.put(nextHome, owner);
+
+        index.remove(sameHome.get(0));
+
+        assertThat(index.contains(sameHome.get(0))).isFalse();
+        assertThat(index.isOwnedBy(sameHome.get(1), owner)).isTrue();
+        assertThat(index.isOwnedBy(sameHome.get(2), owner)).isTrue();
+        assertThat(index.isOwnedBy(nextHome, owner)).isTrue();
+
+        index.remove(sameHome.get(2));
+
+        assertThat(index.isOwnedBy(sameHome.get(1), owner)).isTrue();
+        assertThat(index.isOwnedBy(nextHome, owner)).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void probeChainWrapsAroundEndOfTable() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        List<UUID> lastSlot = sessionsWithHome(MASK, 3);
+        UUID firstSlot = sessionsWithHome(0, 1).get(0);
+        UUID owner = UUID.randomUUID();
+        // Occupies the last slot and wraps to slots 0, 1 and 2
+        lastSlot.forEach(session -> index.put(session, owner));
+        index.put(firstSlot, owner);
+
+        lastSlot.forEach(session -> assertThat(index.isOwnedBy(session, owner)).isTrue());
+        assertThat(index.isOwnedBy(firstSlot, owner)).isTrue();
+
+        index.remove(lastSlot.get(0));
+        index.remove(lastSlot.get(1));
+
+        assertThat(index.isOwnedBy(lastSlot.get(2), owner)).isTrue();
+        assertThat(index.isOwnedBy(firstSlot, owner)).isTrue();
+
+        index.put(lastSlot.get(0), owner);
+
+        assertThat(index.isOwnedBy(lastSlot.get(0), owner)).isTrue();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void removeOfUnknownSessionChangesNothing() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+        index.put(session, owner);
+
+        index.remove(UUID.randomUUID());
+
+        assertThat(index.isOwnedBy(session, owner)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        List<UUID> sessions = new ArrayList<>();
+        List<UUID> owners = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            sessions.add(UUID.randomUUID());
+            owners.add(UUID.randomUUID());
+            index.put(sessions.get(i), owners.get(i));
+        }
+
+        assertThat(index.size()).isEqualTo(10_000);
+        for (int i = 0; i < sessions.size(); i++) {
+            assertThat(index.isOwnedBy(sessions.get(i), owners.get(i))).isTrue();
+        }
+
+        for (int i = 0; i < sessions.size(); i += 2) {
+            index.remove(sessions.get(i));
+        }
+
+        assertThat(index.size()).isEqualTo(5_000);
+        for (int i = 0; i < sessions.size(); i++) {
+            assertThat(index.contains(sessions.get(i))).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    void checkIsUnknownUntilReady() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+        index.put(session, owner);
+
+        assertThat(index.check(session, owner, Duration.ofSeconds(1))).isEqualTo(Ownership.UNKNOWN);
+
+        index.markReady();
+
+        assertThat(index.check(session, owner, Duration.ZERO)).isEqualTo(Ownership.OWNED);
+        assertThat(index.check(session, UUID.randomUUID(), Duration.ZERO)).isEqualTo(Ownership.NOT_OWNED);
+        assertThat(index.check(UUID.randomUUID(), owner, Duration.ofMillis(20))).isEqualTo(Ownership.UNKNOWN);
+    }
+
+    @Test
+    void checkWaitsForSessionToArrive() throws Exception {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        index.markReady();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        CompletableFuture<Ownership> check = CompletableFuture.supplyAsync(
+                () -> index.check(session, owner, Duration.ofSeconds(10)));
+        TimeUnit.MILLISECONDS.sleep(50);
+        index.put(session, owner);
+
+        assertThat(check.get(5, TimeUnit.SECONDS)).isEqualTo(Ownership.OWNED);
+    }
+
+    @Test
+    void readersNeverMissStableSessionsWhileWriterChurns() throws Exception {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID owner = UUID.randomUUID();
+        List<UUID> stable = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stable.add(UUID.randomUUID());
+            index.put(stable.get(i), owner);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger misses = new AtomicInteger();
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            while (!done.get()) {
+                for (UUID session : stable) {
+                    if (!index.isOwnedBy(session, owner)) {
+                        misses.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // Inserts force several resizes and removals shift entries back along probe chains
+        List<UUID> churn = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 2_000; i++) {
+                UUID session = UUID.randomUUID();
+                churn.add(session);
+                index.put(session, UUID.randomUUID());
+            }
+            for (int i = 0; i < 1_000; i++) {
+                index.remove(churn.remove(ThreadLocalRandom.current().nextInt(churn.size())));
+            }
+        }
+        done.set(true);
+        reader.get(10, TimeUnit.SECONDS);
+
+        assertThat(misses.get()).isZero();
+        assertThat(index.size()).isEqualTo(stable.size() + churn.size());
+    }
+
+    private static List<UUID> sessionsWithHome(int slot, int count) {
+        List<UUID> sessions = new ArrayList<>();
+        while (sessions.size() < count) {
+            UUID session = UUID.randomUUID();
+            if (SessionOwnershipIndex.home(session.getMostSignificantBits(), session.getLeastSignificantBits(), MASK) == slot) {
+                sessions.add(session);
+            }
+        }
+        return sessions;
+    }
+
+    @Test
+    void lookedUpOwnerIsRecordedWhenNothingWasRemoved() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        long stamp = index.removalStamp(session);
+
+        assertThat(index.putIfNotRemovedSince(session, owner, stamp)).isTrue();
+        assertThat(index.isOwnedBy(session, owner)).isTrue();
+    }
+
+    @Test
+    void lookedUpOwnerIsDroppedWhenSessionWasRemovedDuringLookup() {
+        SessionOwnershipIndex index = new SessionOwnershipIndex();
+        UUID session = UUID.randomUUID();
+        UUID owner = UUID.randomUUID();
+
+        long stamp = index.removalStamp(session);
+        // The DELETED event arrives while session-service is still answering the lookup
+        index.remove(session);
+
+        assertThat(index.putIfNotRemovedSince(session, owner, stamp)).isFalse();
+        assertThat(index.contains(session)).isFalse();
+        assertThat(index.size()).isZero();
+    }
+}
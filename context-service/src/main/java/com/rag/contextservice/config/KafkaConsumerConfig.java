@@ -1,7 +1,7 @@
 package com.rag.contextservice.config;
 
 import com.rag.contextservice.event.MessageEvent;
-import com.rag.contextservice.event.SessionEvent;
+import com.ragchat.common.event.SessionEvent;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
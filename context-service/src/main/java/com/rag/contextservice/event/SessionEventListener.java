@@ -9,7 +9,10 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -23,18 +26,19 @@ public class SessionEventListener {
     public void handleSessionEvent(List<SessionEvent> events) {
         log.info("Received batch of {} session events", events.size());
 
+        // The context entries of every session deleted in the batch go in one statement
+        Set<UUID> deletedSessionIds = new LinkedHashSet<>();
         for (SessionEvent event : events) {
-            try {
-                if (event.getType() == SessionEventType.DELETED) {
-                    log.debug("Handling session deleted event for session ID: {}", event.getSessionId());
-                    contextEntryRepository.deleteBySessionId(event.getSessionId());
-                    log.debug("Deleted all context entries for session ID: {}", event.getSessionId());
-                }
-            } catch (Exception e) {
-                log.error("Error processing session event: {}", event, e);
+            if (event != null && event.getType() == SessionEventType.DELETED && event.getSessionId() != null) {
+                deletedSessionIds.add(event.getSessionId());
             }
         }
 
+        if (!deletedSessionIds.isEmpty()) {
+            int deleted = contextEntryRepository.deleteAllBySessionIdIn(deletedSessionIds);
+            log.debug("Deleted {} context entries of {} deleted sessions", deleted, deletedSessionIds.size());
+        }
+
         log.info("Finished processing batch of {} session events", events.size());
     }
-}
\ No newline at end of file
+}
@@ -5,9 +5,12 @@ import com.rag.contextservice.model.SourceType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -67,6 +70,16 @@ public interface ContextEntryRepository extends JpaRepository<ContextEntry, UUID
      */
     void deleteBySessionId(UUID sessionId);
 
+    /**
+     * Delete context entries of many sessions in a single statement, without loading them first
+     *
+     * @param sessionIds the session IDs
+     * @return the number of context entries deleted
+     */
+    @Modifying
+    @Query("DELETE FROM ContextEntry c WHERE c.sessionId IN :sessionIds")
+    int deleteAllBySessionIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
+
     /**
      * Delete context entries by message ID
      *
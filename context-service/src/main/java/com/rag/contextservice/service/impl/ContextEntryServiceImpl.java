@@ -12,12 +12,14 @@ import com.rag.contextservice.model.SourceType;
 import com.rag.contextservice.repository.ContextEntryRepository;
 import com.rag.contextservice.service.ContextEntryService;
 import com.rag.contextservice.service.EmbeddingService;
+import com.ragchat.common.session.SessionOwnershipVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
@@ -36,6 +38,7 @@ public class ContextEntryServiceImpl implements ContextEntryService {
     private final ContextEntryMapper contextEntryMapper;
     private final ContextEventProducer eventProducer;
     private final EmbeddingService embeddingService;
+    private final SessionOwnershipVerifier ownershipVerifier;
 
     @Override
     public PageResponseDto<ContextEntryResponseDto> getContextEntries(
@@ -66,12 +69,17 @@ public class ContextEntryServiceImpl implements ContextEntryService {
         return PageResponseDto.fromPage(dtoPage);
     }
 
+    // Verified outside a transaction; the save runs in a transaction of its own
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ContextEntryResponseDto createContextEntry(UUID userId, ContextEntryCreateDto entryDto) {
         log.info("Creating context entry for user ID: {} and session ID: {}",
                 userId, entryDto.getSessionId());
 
+        if (!ownershipVerifier.isOwnedBy(entryDto.getSessionId(), userId)) {
+            throw new ResourceNotFoundException("Session not found with id: " + entryDto.getSessionId());
+        }
+
         byte[] embedding = null;
         if (entryDto.getText() != null && !entryDto.getText().isEmpty()) {
             embedding = embeddingService.generateEmbedding(entryDto.getText());
@@ -176,4 +184,4 @@ public class ContextEntryServiceImpl implements ContextEntryService {
                 .filter(entry -> entry.getUserId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Context entry not found with id: " + id));
     }
-}
\ No newline at end of file
+}
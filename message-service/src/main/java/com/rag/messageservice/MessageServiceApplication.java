@@ -1,13 +1,16 @@
 package com.rag.messageservice;
 
+import com.ragchat.common.session.SessionOwnershipConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
 import org.springframework.kafka.annotation.EnableKafka;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableKafka
+@Import(SessionOwnershipConfiguration.class)
 public class MessageServiceApplication {
 
     public static void main(String[] args) {
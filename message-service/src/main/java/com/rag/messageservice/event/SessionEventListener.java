@@ -9,11 +9,12 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -24,7 +25,8 @@ public class SessionEventListener {
     private final PlatformTransactionManager transactionManager;
 
     /**
-     * Listens for session events from Kafka and processes them
+     * Listens for session events from Kafka and purges the messages of all sessions deleted in
+     * the batch with a single statement
      *
      * @param events list of session events
      */
@@ -37,38 +39,25 @@ public class SessionEventListener {
 
         log.info("Received batch of {} session events", events.size());
 
-        // Create a transaction template
-        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
-
+        Set<UUID> deletedSessionIds = new LinkedHashSet<>();
         for (SessionEvent event : events) {
-            try {
-                if (event == null) {
-                    log.warn("Received null event in batch. Skipping.");
-                    continue;
-                }
-
-                if (event.getType() == SessionEventType.DELETED) {
-                    // Process each event in its own transaction
-                    transactionTemplate.execute(new TransactionCallbackWithoutResult() {
-                        @Override
-                        protected void doInTransactionWithoutResult(TransactionStatus status) {
-                            try {
-                                log.debug("Handling session deleted event for session ID: {}", event.getSessionId());
-                                messageRepository.deleteBySessionId(event.getSessionId());
-                                log.debug("Deleted all messages for session ID: {}", event.getSessionId());
-                            } catch (Exception e) {
-                                log.error("Error within transaction for session ID: {}", event.getSessionId(), e);
-                                // Mark the transaction for rollback
-                                status.setRollbackOnly();
-                            }
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                log.error("Error processing session event: {}", event, e);
+            if (event == null) {
+                log.warn("Received null event in batch. Skipping.");
+                continue;
+            }
+            if (event.getType() == SessionEventType.DELETED && event.getSessionId() != null) {
+                deletedSessionIds.add(event.getSessionId());
             }
         }
 
+        if (!deletedSessionIds.isEmpty()) {
+            // Failures propagate so the container's error handler retries the batch instead of
+            // committing the offsets and leaving the messages behind
+            Integer deleted = new TransactionTemplate(transactionManager)
+                    .execute(status -> messageRepository.deleteAllBySessionIdIn(deletedSessionIds));
+            log.debug("Deleted {} messages of {} deleted sessions", deleted, deletedSessionIds.size());
+        }
+
         log.info("Finished processing batch of {} session events", events.size());
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,12 @@ import com.rag.messageservice.model.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,4 +57,14 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
      * @param sessionId the session ID
      */
     void deleteBySessionId(UUID sessionId);
+
+    /**
+     * Delete messages of many sessions in a single statement, without loading them first
+     *
+     * @param sessionIds the session IDs
+     * @return the number of messages deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.sessionId IN :sessionIds")
+    int deleteAllBySessionIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
 }
\ No newline at end of file
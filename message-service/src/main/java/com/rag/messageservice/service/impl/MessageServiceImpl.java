@@ -10,12 +10,14 @@ import com.rag.messageservice.mapper.MessageMapper;
 import com.rag.messageservice.model.Message;
 import com.rag.messageservice.repository.MessageRepository;
 import com.rag.messageservice.service.MessageService;
+import com.ragchat.common.session.SessionOwnershipVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
@@ -32,6 +34,7 @@ public class MessageServiceImpl implements MessageService {
     private final MessageRepository messageRepository;
     private final MessageMapper messageMapper;
     private final MessageEventProducer eventProducer;
+    private final SessionOwnershipVerifier ownershipVerifier;
 
     @Override
     public PageResponseDto<MessageResponseDto> getMessages(
@@ -57,11 +60,16 @@ public class MessageServiceImpl implements MessageService {
                 .collect(Collectors.toList());
     }
 
+    // Verified outside a transaction; the save runs in a transaction of its own
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageResponseDto createMessage(UUID userId, MessageCreateDto messageDto) {
         log.info("Creating message for user ID: {} and session ID: {}", userId, messageDto.getSessionId());
 
+        if (!ownershipVerifier.isOwnedBy(messageDto.getSessionId(), userId)) {
+            throw new ResourceNotFoundException("Session not found with id: " + messageDto.getSessionId());
+        }
+
         Message message = Message.builder()
                 .sessionId(messageDto.getSessionId())
                 .userId(userId)
@@ -134,4 +142,4 @@ public class MessageServiceImpl implements MessageService {
                 .filter(m -> m.getUserId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found with id: " + id));
     }
-}
\ No newline at end of file
+}
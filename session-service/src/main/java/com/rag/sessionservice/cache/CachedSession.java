@@ -0,0 +1,28 @@
+package com.rag.sessionservice.cache;
+
+import com.rag.sessionservice.model.Session;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a session, so cached values cannot be changed through a managed entity
+ */
+public record CachedSession(UUID id,
+                            UUID userId,
+                            String name,
+                            boolean favorite,
+                            int messageCount,
+                            OffsetDateTime lastMessageAt,
+                            OffsetDateTime createdAt,
+                            OffsetDateTime updatedAt) {
+
+    public static CachedSession from(Session session) {
+        return new CachedSession(session.getId(), session.getUserId(), session.getName(), session.isFavorite(),
+                session.getMessageCount(), session.getLastMessageAt(), session.getCreatedAt(), session.getUpdatedAt());
+    }
+
+    public boolean isOwnedBy(UUID userId) {
+        return this.userId.equals(userId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rag.sessionservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of sessions by ID, serving ownership checks and session reads.
+ * <p>
+ * Local writes invalidate their sessions once the transaction commits, so a concurrent read cannot
+ * put the old row back. Other replicas are invalidated by the session-events they publish for the
+ * same writes. Entries also expire after a TTL as a bound on staleness if an event is lost.
+ * Metrics are published as the "sessions" cache.
+ */
+@Component
+public class SessionCache {
+
+    private final Cache<UUID, CachedSession> cache;
+
+    public SessionCache(@Value("${session-cache.maximum-size:100000}") long maximumSize,
+                        @Value("${session-cache.ttl:10m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sessions");
+    }
+
+    /**
+     * Gets a session, loading it on a miss. Missing sessions are not cached.
+     *
+     * @param id     the session ID
+     * @param loader loads the session, returning null if it does not exist
+     * @return the session, or null if it does not exist
+     */
+    public CachedSession get(UUID id, Function<UUID, CachedSession> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Drops a session from this replica's cache
+     *
+     * @param id the session ID
+     */
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Drops sessions from this replica's cache now and again when the current transaction commits
+     *
+     * @param ids the session IDs
+     */
+    public void invalidateAfterCommit(Collection<UUID> ids) {
+        cache.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<UUID> pending = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(pending);
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.rag.sessionservice.config;
 
 import com.rag.sessionservice.event.MessageEvent;
+import com.ragchat.common.event.SessionEvent;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -65,4 +66,34 @@ public class KafkaConsumerConfig {
         factory.setBatchListener(true);
         return factory;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ConsumerFactory<String, SessionEvent> sessionEventConsumerFactory(
+            @Value("${session-cache.invalidation.group-id}") String invalidationGroupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(GROUP_ID_CONFIG, invalidationGroupId);
+        // Older events only concern entries this instance has not cached yet
+        props.put(AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        props.put(KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, SessionEvent.class.getName());
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.ragchat.common.event");
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SessionEvent> sessionEventListenerContainerFactory(
+            ConsumerFactory<String, SessionEvent> sessionEventConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, SessionEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(sessionEventConsumerFactory);
+        factory.setBatchListener(true);
+        return factory;
+    }
+}
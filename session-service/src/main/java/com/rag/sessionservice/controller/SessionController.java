@@ -1,6 +1,10 @@
 package com.rag.sessionservice.controller;
 
+import com.rag.sessionservice.dto.BulkOperationResponseDto;
+import com.rag.sessionservice.dto.CursorPageResponseDto;
 import com.rag.sessionservice.dto.PageResponseDto;
+import com.rag.sessionservice.dto.SessionBulkDeleteDto;
+import com.rag.sessionservice.dto.SessionBulkFavoriteDto;
 import com.rag.sessionservice.dto.SessionCreateDto;
 import com.rag.sessionservice.dto.SessionResponseDto;
 import com.rag.sessionservice.dto.SessionUpdateDto;
@@ -49,6 +53,26 @@ public class SessionController {
         return ResponseEntity.ok(sessionService.getSessions(userId, page, size, isFavorite, sortBy, sortDirection));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get sessions by cursor",
+            description = "Returns sessions for the authenticated user, most recently updated first. "
+                    + "Pass the nextCursor of a page to get the following one; deep pages are as fast as the first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved sessions"),
+            @ApiResponse(responseCode = "400", description = "Bad request or invalid cursor", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content)
+    })
+    public ResponseEntity<CursorPageResponseDto<SessionResponseDto>> getSessionsByCursor(
+            @RequestHeader("X-User-ID") UUID userId,
+            @Parameter(description = "Cursor from the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Boolean isFavorite) {
+
+        log.info("Getting sessions by cursor for user: {}", userId);
+        return ResponseEntity.ok(sessionService.getSessionsByCursor(userId, cursor, size, isFavorite));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new session", description = "Creates a new session for the authenticated user")
     @ApiResponses(value = {
@@ -112,4 +136,40 @@ public class SessionController {
         sessionService.deleteSession(id, userId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "Delete many sessions",
+            description = "Deletes up to 100 sessions of the authenticated user at once. "
+                    + "IDs that do not exist or belong to another user are returned as notFound")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions deleted"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content)
+    })
+    public ResponseEntity<BulkOperationResponseDto> deleteSessions(
+            @RequestHeader("X-User-ID") UUID userId,
+            @Valid @RequestBody SessionBulkDeleteDto bulkDto) {
+
+        log.info("Deleting {} sessions for user: {}", bulkDto.getSessionIds().size(), userId);
+        return ResponseEntity.ok(sessionService.deleteSessions(bulkDto.getSessionIds(), userId));
+    }
+
+    @PostMapping("/bulk/favorite")
+    @Operation(summary = "Set the favorite status of many sessions",
+            description = "Marks or unmarks up to 100 sessions of the authenticated user as favorite at once. "
+                    + "IDs that do not exist or belong to another user are returned as notFound")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions updated"),
+            @ApiResponse(responseCode = "400", description = "Bad request", content = @Content),
+            @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content)
+    })
+    public ResponseEntity<BulkOperationResponseDto> updateFavorites(
+            @RequestHeader("X-User-ID") UUID userId,
+            @Valid @RequestBody SessionBulkFavoriteDto bulkDto) {
+
+        log.info("Setting favorite={} on {} sessions for user: {}",
+                bulkDto.getIsFavorite(), bulkDto.getSessionIds().size(), userId);
+        return ResponseEntity.ok(sessionService.updateFavorites(
+                bulkDto.getSessionIds(), userId, bulkDto.getIsFavorite()));
+    }
+}
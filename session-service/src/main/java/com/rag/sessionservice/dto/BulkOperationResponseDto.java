@@ -0,0 +1,16 @@
+package com.rag.sessionservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationResponseDto {
+    private List<UUID> processed;
+    private List<UUID> notFound;
+}
@@ -0,0 +1,19 @@
+package com.rag.sessionservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionBulkDeleteDto {
+    @NotEmpty(message = "At least one session ID is required")
+    @Size(max = 100, message = "At most 100 session IDs are allowed")
+    private List<UUID> sessionIds;
+}
@@ -1,7 +1,7 @@
 package com.rag.sessionservice.event;
 
 import org.apache.kafka.clients.admin.NewTopic;
-import org.springframework.beans.factory.annotation.Value;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -11,14 +11,16 @@ import org.springframework.kafka.core.ProducerFactory;
 @Configuration
 public class KafkaProducerConfig {
 
-    @Value("${spring.application.name}")
-    private String applicationName;
-
+    /**
+     * Events are keyed by session ID, so compaction keeps the latest event of every session, which
+     * is all that message-service and context-service need to rebuild their ownership indexes
+     */
     @Bean
     public NewTopic sessionEventsTopic() {
-        return TopicBuilder.name(applicationName)
+        return TopicBuilder.name("session-events")
                 .partitions(3)
                 .replicas(1)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
                 .build();
     }
 
@@ -26,4 +28,4 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.rag.sessionservice.event;
 
+import com.rag.sessionservice.repository.MessageCountDelta;
 import com.rag.sessionservice.service.SessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,7 +9,11 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -17,6 +22,10 @@ public class MessageEventListener {
 
     private final SessionService sessionService;
 
+    /**
+     * Folds a batch of message events into one delta per session and applies them in a single
+     * update, so a busy session costs one row write per poll rather than one per message
+     */
     @KafkaListener(topics = "message-events", groupId = "${spring.application.name}", containerFactory = "kafkaListenerContainerFactory")
     public void handleMessageEvent(@Payload List<MessageEvent> events) {
         if (events == null) {
@@ -26,28 +35,31 @@ public class MessageEventListener {
 
         log.info("Received batch of {} message events", events.size());
 
+        OffsetDateTime receivedAt = OffsetDateTime.now();
+        Map<UUID, MessageCountDelta> deltas = new HashMap<>();
         for (MessageEvent event : events) {
-            try {
-                if (event == null) {
-                    log.warn("Received null event in batch. Skipping.");
-                    continue;
-                }
-
-                if (event.getType() == MessageEventType.CREATED) {
-                    log.info("Handling message created event for session ID: {}", event.getSessionId());
-
-                    try {
-                        sessionService.incrementMessageCount(event.getSessionId(), event.getTimestamp());
-                    } catch (Exception e) {
-                        log.warn("Converting timestamp for session ID: {}", event.getSessionId());
-                        sessionService.incrementMessageCount(event.getSessionId(), OffsetDateTime.now());
-                    }
-                }
-            } catch (Exception e) {
-                log.error("Error processing message event: {}", event, e);
+            if (event == null) {
+                log.warn("Received null event in batch. Skipping.");
+                continue;
             }
+            if (event.getType() != MessageEventType.CREATED || event.getSessionId() == null) {
+                continue;
+            }
+
+            OffsetDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : receivedAt;
+            deltas.merge(event.getSessionId(), new MessageCountDelta(event.getSessionId(), 1, timestamp),
+                    MessageEventListener::combine);
+        }
+
+        if (!deltas.isEmpty()) {
+            sessionService.applyMessageCounts(new ArrayList<>(deltas.values()));
         }
 
-        log.info("Finished processing batch of {} message events", events.size());
+        log.info("Finished processing batch of {} message events for {} sessions", events.size(), deltas.size());
+    }
+
+    private static MessageCountDelta combine(MessageCountDelta a, MessageCountDelta b) {
+        OffsetDateTime latest = a.lastMessageAt().isAfter(b.lastMessageAt()) ? a.lastMessageAt() : b.lastMessageAt();
+        return new MessageCountDelta(a.sessionId(), a.count() + b.count(), latest);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.rag.sessionservice.event;
+
+import com.rag.sessionservice.cache.SessionCache;
+import com.ragchat.common.event.SessionEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionEventListener {
+
+    private final SessionCache sessionCache;
+
+    /**
+     * Drops sessions changed by any replica from this replica's cache. The container factory
+     * gives every instance its own consumer group, so each one sees every event.
+     */
+    @KafkaListener(topics = "session-events", containerFactory = "sessionEventListenerContainerFactory")
+    public void handleSessionEvents(@Payload List<SessionEvent> events) {
+        if (events == null) {
+            return;
+        }
+
+        for (SessionEvent event : events) {
+            if (event != null && event.getSessionId() != null) {
+                sessionCache.invalidate(event.getSessionId());
+            }
+        }
+        log.debug("Invalidated cached sessions for {} session events", events.size());
+    }
+}
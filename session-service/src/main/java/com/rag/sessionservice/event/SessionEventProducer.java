@@ -8,6 +8,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 @Service
@@ -51,6 +52,28 @@ public class SessionEventProducer {
         return sendSessionEvent(SessionEventType.DELETED, sessionId, userId);
     }
 
+    /**
+     * Sends session updated events for many sessions of one user in one producer batch
+     *
+     * @param sessionIds the session IDs
+     * @param userId     the user ID
+     * @return true if the events were sent successfully
+     */
+    public boolean sendSessionUpdatedEvents(Collection<UUID> sessionIds, UUID userId) {
+        return sendSessionEvents(SessionEventType.UPDATED, sessionIds, userId);
+    }
+
+    /**
+     * Sends session deleted events for many sessions of one user in one producer batch
+     *
+     * @param sessionIds the session IDs
+     * @param userId     the user ID
+     * @return true if the events were sent successfully
+     */
+    public boolean sendSessionDeletedEvents(Collection<UUID> sessionIds, UUID userId) {
+        return sendSessionEvents(SessionEventType.DELETED, sessionIds, userId);
+    }
+
     /**
      * Sends a session event to Kafka
      *
@@ -70,4 +93,31 @@ public class SessionEventProducer {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Hands all events to the producer before flushing it once, so they leave in as few
+     * requests as the partitions allow instead of one per session
+     *
+     * @param eventType  the event type
+     * @param sessionIds the session IDs
+     * @param userId     the user ID
+     * @return true if the events were sent successfully
+     */
+    private boolean sendSessionEvents(SessionEventType eventType, Collection<UUID> sessionIds, UUID userId) {
+        if (sessionIds.isEmpty()) {
+            return true;
+        }
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            for (UUID sessionId : sessionIds) {
+                kafkaTemplate.send(TOPIC, sessionId.toString(), new SessionEvent(eventType, sessionId, userId, now));
+            }
+            kafkaTemplate.flush();
+            log.info("Sent {} {} events to topic {}", sessionIds.size(), eventType, TOPIC);
+            return true;
+        } catch (Exception e) {
+            log.error("Error sending {} events to topic {}: {}", eventType, TOPIC, e.getMessage(), e);
+            return false;
+        }
+    }
+}
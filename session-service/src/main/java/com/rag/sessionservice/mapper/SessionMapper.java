@@ -1,5 +1,6 @@
 package com.rag.sessionservice.mapper;
 
+import com.rag.sessionservice.cache.CachedSession;
 import com.rag.sessionservice.dto.SessionResponseDto;
 import com.rag.sessionservice.model.Session;
 import org.springframework.stereotype.Component;
@@ -28,4 +29,26 @@ public class SessionMapper {
                 session.getUpdatedAt()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps a cached session to a SessionResponseDto
+     *
+     * @param session the cached session
+     * @return the session response DTO
+     */
+    public SessionResponseDto toResponseDto(CachedSession session) {
+        if (session == null) {
+            return null;
+        }
+
+        return new SessionResponseDto(
+                session.id(),
+                session.name(),
+                session.favorite(),
+                session.messageCount(),
+                session.lastMessageAt(),
+                session.createdAt(),
+                session.updatedAt()
+        );
+    }
+}
@@ -30,10 +30,12 @@ public class Session {
     @Column(name = "is_favorite")
     private boolean favorite;
 
-    @Column(name = "message_count")
+    // Only the set-based count update writes these, so saving a loaded session never overwrites
+    // counts applied since it was read
+    @Column(name = "message_count", updatable = false)
     private int messageCount;
 
-    @Column(name = "last_message_at")
+    @Column(name = "last_message_at", updatable = false)
     private OffsetDateTime lastMessageAt;
 
     @Column(name = "created_at")
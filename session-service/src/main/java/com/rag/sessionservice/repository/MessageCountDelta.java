@@ -0,0 +1,14 @@
+package com.rag.sessionservice.repository;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * The messages a batch of events adds to one session
+ *
+ * @param sessionId     the session ID
+ * @param count         the number of new messages
+ * @param lastMessageAt the timestamp of the newest of them
+ */
+public record MessageCountDelta(UUID sessionId, int count, OffsetDateTime lastMessageAt) {
+}
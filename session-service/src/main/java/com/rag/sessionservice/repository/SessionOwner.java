@@ -0,0 +1,12 @@
+package com.rag.sessionservice.repository;
+
+import java.util.UUID;
+
+/**
+ * A session and the user it belongs to
+ *
+ * @param sessionId the session ID
+ * @param userId    the owner's user ID
+ */
+public record SessionOwner(UUID sessionId, UUID userId) {
+}
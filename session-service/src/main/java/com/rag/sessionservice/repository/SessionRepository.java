@@ -4,15 +4,77 @@ import com.rag.sessionservice.model.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface SessionRepository extends JpaRepository<Session, UUID> {
+public interface SessionRepository extends JpaRepository<Session, UUID>, SessionRepositoryCustom {
     Page<Session> findByUserId(UUID userId, Pageable pageable);
     Page<Session> findByUserIdAndFavorite(UUID userId, boolean favorite, Pageable pageable);
     Optional<Session> findByIdAndUserId(UUID id, UUID userId);
     boolean existsByIdAndUserId(UUID id, UUID userId);
-}
\ No newline at end of file
+
+    // Keyset pages in (updated_at DESC, id DESC) order. The favorite variants spell out
+    // is_favorite = true so that even a generic plan can use the partial index, which a bound
+    // parameter does not guarantee
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findFirstPage(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId
+              AND (updated_at, id) < (:updatedAt, :id)
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findPageAfter(@Param("userId") UUID userId, @Param("updatedAt") OffsetDateTime updatedAt,
+                                @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId AND is_favorite = true
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findFirstFavoritePage(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId AND is_favorite = true
+              AND (updated_at, id) < (:updatedAt, :id)
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findFavoritePageAfter(@Param("userId") UUID userId, @Param("updatedAt") OffsetDateTime updatedAt,
+                                        @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId AND is_favorite = false
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findFirstNonFavoritePage(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT * FROM sessions
+            WHERE user_id = :userId AND is_favorite = false
+              AND (updated_at, id) < (:updatedAt, :id)
+            ORDER BY updated_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Session> findNonFavoritePageAfter(@Param("userId") UUID userId, @Param("updatedAt") OffsetDateTime updatedAt,
+                                           @Param("id") UUID id, @Param("limit") int limit);
+}
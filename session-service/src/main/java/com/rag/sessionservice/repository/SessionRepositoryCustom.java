@@ -0,0 +1,36 @@
+package com.rag.sessionservice.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface SessionRepositoryCustom {
+
+    /**
+     * Adds message counts to sessions in a single statement. Counts are incremented in the
+     * database, so concurrent updates are never lost, and last_message_at only moves forward.
+     *
+     * @param deltas the deltas, at most one per session
+     * @return the sessions updated; deltas of sessions that no longer exist are ignored
+     */
+    List<SessionOwner> applyMessageCountDeltas(Collection<MessageCountDelta> deltas);
+
+    /**
+     * Deletes the sessions of a user in a single statement
+     *
+     * @param userId     the user ID
+     * @param sessionIds the session IDs; sessions of other users are left alone
+     * @return the IDs of the sessions deleted
+     */
+    List<UUID> deleteAllByIdsAndUserId(UUID userId, Collection<UUID> sessionIds);
+
+    /**
+     * Sets the favorite status of the sessions of a user in a single statement
+     *
+     * @param userId     the user ID
+     * @param sessionIds the session IDs; sessions of other users are left alone
+     * @param favorite   the new favorite status
+     * @return the IDs of the sessions updated
+     */
+    List<UUID> updateFavoriteByIdsAndUserId(UUID userId, Collection<UUID> sessionIds, boolean favorite);
+}
@@ -0,0 +1,94 @@
+package com.rag.sessionservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+
+    // One row write per session, however many of its messages the batch contains
+    private static final String APPLY_MESSAGE_COUNT_DELTAS = """
+            UPDATE sessions s
+            SET message_count = s.message_count + d.delta,
+                last_message_at = GREATEST(s.last_message_at, d.last_message_at),
+                updated_at = CURRENT_TIMESTAMP
+            FROM unnest(?::uuid[], ?::int[], ?::timestamptz[]) AS d(id, delta, last_message_at)
+            WHERE s.id = d.id
+            RETURNING s.id, s.user_id
+            """;
+
+    private static final String DELETE_BY_IDS_AND_USER_ID = """
+            DELETE FROM sessions
+            WHERE user_id = ? AND id = ANY(?::uuid[])
+            RETURNING id
+            """;
+
+    private static final String UPDATE_FAVORITE_BY_IDS_AND_USER_ID = """
+            UPDATE sessions
+            SET is_favorite = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = ? AND id = ANY(?::uuid[])
+            RETURNING id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<SessionOwner> applyMessageCountDeltas(Collection<MessageCountDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+
+        UUID[] ids = new UUID[deltas.size()];
+        Integer[] counts = new Integer[deltas.size()];
+        String[] lastMessageAts = new String[deltas.size()];
+        int i = 0;
+        for (MessageCountDelta delta : deltas) {
+            ids[i] = delta.sessionId();
+            counts[i] = delta.count();
+            lastMessageAts[i] = delta.lastMessageAt() != null ? delta.lastMessageAt().toString() : null;
+            i++;
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPLY_MESSAGE_COUNT_DELTAS);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(2, connection.createArrayOf("integer", counts));
+            statement.setArray(3, connection.createArrayOf("timestamptz", lastMessageAts));
+            return statement;
+        }, (row, rowNumber) -> new SessionOwner(row.getObject(1, UUID.class), row.getObject(2, UUID.class)));
+    }
+
+    @Override
+    public List<UUID> deleteAllByIdsAndUserId(UUID userId, Collection<UUID> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_BY_IDS_AND_USER_ID);
+            statement.setObject(1, userId);
+            statement.setArray(2, connection.createArrayOf("uuid", sessionIds.toArray()));
+            return statement;
+        }, (row, rowNumber) -> row.getObject(1, UUID.class));
+    }
+
+    @Override
+    public List<UUID> updateFavoriteByIdsAndUserId(UUID userId, Collection<UUID> sessionIds, boolean favorite) {
+        if (sessionIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPDATE_FAVORITE_BY_IDS_AND_USER_ID);
+            statement.setBoolean(1, favorite);
+            statement.setObject(2, userId);
+            statement.setArray(3, connection.createArrayOf("uuid", sessionIds.toArray()));
+            return statement;
+        }, (row, rowNumber) -> row.getObject(1, UUID.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.rag.sessionservice.service;
+
+import com.rag.sessionservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a session listing ordered by {@code updated_at DESC, id DESC}: the sort key of the
+ * last session returned. Clients receive it as an opaque URL-safe string.
+ *
+ * @param updatedAt the update time of the last session, at the database's microsecond precision
+ * @param id        the ID of the last session, breaking ties between equal update times
+ */
+public record SessionCursor(OffsetDateTime updatedAt, UUID id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Encodes the cursor for a client
+     *
+     * @return the opaque cursor
+     */
+    public String encode() {
+        Instant instant = updatedAt.toInstant();
+        long micros = Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+        String raw = Long.toString(micros) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor received from a client
+     *
+     * @param cursor the opaque cursor
+     * @return the cursor
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode()}
+     */
+    public static SessionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            long micros = Long.parseLong(raw, 0, separator, 10);
+            Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    Math.floorMod(micros, 1_000_000L) * 1_000L);
+            return new SessionCursor(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
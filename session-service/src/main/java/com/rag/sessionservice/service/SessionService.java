@@ -1,11 +1,15 @@
 package com.rag.sessionservice.service;
 
+import com.rag.sessionservice.dto.BulkOperationResponseDto;
+import com.rag.sessionservice.dto.CursorPageResponseDto;
 import com.rag.sessionservice.dto.PageResponseDto;
 import com.rag.sessionservice.dto.SessionCreateDto;
 import com.rag.sessionservice.dto.SessionResponseDto;
 import com.rag.sessionservice.dto.SessionUpdateDto;
+import com.rag.sessionservice.repository.MessageCountDelta;
 
-import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface SessionService {
@@ -24,6 +28,19 @@ public interface SessionService {
     PageResponseDto<SessionResponseDto> getSessions(
             UUID userId, int page, int size, Boolean isFavorite, String sortBy, String sortDirection);
 
+    /**
+     * Gets a page of sessions for a user by cursor, newest first, without counting the total
+     *
+     * @param userId the user ID
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the page size
+     * @param isFavorite filter by favorite status (null to get all)
+     * @return the page of sessions and the cursor of the next one
+     * @throws com.rag.sessionservice.exception.InvalidCursorException if the cursor is malformed
+     */
+    CursorPageResponseDto<SessionResponseDto> getSessionsByCursor(
+            UUID userId, String cursor, int size, Boolean isFavorite);
+
     /**
      * Creates a new session
      *
@@ -64,13 +81,31 @@ public interface SessionService {
     void deleteSession(UUID id, UUID userId);
 
     /**
-     * Increments the message count for a session
+     * Deletes many sessions of a user at once
      *
-     * @param sessionId the session ID
-     * @param timestamp the timestamp of the message
-     * @return the updated session
+     * @param sessionIds the session IDs
+     * @param userId the user ID
+     * @return the sessions deleted and those that were not found
+     */
+    BulkOperationResponseDto deleteSessions(List<UUID> sessionIds, UUID userId);
+
+    /**
+     * Sets the favorite status of many sessions of a user at once
+     *
+     * @param sessionIds the session IDs
+     * @param userId the user ID
+     * @param favorite the new favorite status
+     * @return the sessions updated and those that were not found
+     */
+    BulkOperationResponseDto updateFavorites(List<UUID> sessionIds, UUID userId, boolean favorite);
+
+    /**
+     * Applies the message counts of a batch of message events
+     *
+     * @param deltas the new messages per session, at most one delta per session
+     * @return the number of sessions updated
      */
-    SessionResponseDto incrementMessageCount(UUID sessionId, OffsetDateTime timestamp);
+    int applyMessageCounts(Collection<MessageCountDelta> deltas);
 
     /**
      * Checks if a session exists for a user
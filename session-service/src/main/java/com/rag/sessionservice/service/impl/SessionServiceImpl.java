@@ -1,5 +1,9 @@
 package com.rag.sessionservice.service.impl;
 
+import com.rag.sessionservice.cache.CachedSession;
+import com.rag.sessionservice.cache.SessionCache;
+import com.rag.sessionservice.dto.BulkOperationResponseDto;
+import com.rag.sessionservice.dto.CursorPageResponseDto;
 import com.rag.sessionservice.dto.PageResponseDto;
 import com.rag.sessionservice.dto.SessionCreateDto;
 import com.rag.sessionservice.dto.SessionResponseDto;
@@ -9,7 +13,10 @@ import com.ragchat.common.event.SessionEventType;
 import com.rag.sessionservice.exception.ResourceNotFoundException;
 import com.rag.sessionservice.mapper.SessionMapper;
 import com.rag.sessionservice.model.Session;
+import com.rag.sessionservice.repository.MessageCountDelta;
+import com.rag.sessionservice.repository.SessionOwner;
 import com.rag.sessionservice.repository.SessionRepository;
+import com.rag.sessionservice.service.SessionCursor;
 import com.rag.sessionservice.service.SessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,9 +24,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -28,9 +43,12 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class SessionServiceImpl implements SessionService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final SessionRepository sessionRepository;
     private final SessionMapper sessionMapper;
     private final SessionEventProducer eventProducer;
+    private final SessionCache sessionCache;
 
     @Override
     public PageResponseDto<SessionResponseDto> getSessions(
@@ -53,6 +71,44 @@ public class SessionServiceImpl implements SessionService {
         return PageResponseDto.fromPage(dtoPage);
     }
 
+    @Override
+    public CursorPageResponseDto<SessionResponseDto> getSessionsByCursor(
+            UUID userId, String cursor, int size, Boolean isFavorite) {
+
+        log.info("Getting sessions by cursor for user ID: {}", userId);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // One extra row tells whether there is a next page, without a count query
+        int limit = pageSize + 1;
+        SessionCursor after = cursor != null && !cursor.isBlank() ? SessionCursor.decode(cursor) : null;
+
+        List<Session> sessions;
+        if (Boolean.TRUE.equals(isFavorite)) {
+            sessions = after == null
+                    ? sessionRepository.findFirstFavoritePage(userId, limit)
+                    : sessionRepository.findFavoritePageAfter(userId, after.updatedAt(), after.id(), limit);
+        } else if (Boolean.FALSE.equals(isFavorite)) {
+            sessions = after == null
+                    ? sessionRepository.findFirstNonFavoritePage(userId, limit)
+                    : sessionRepository.findNonFavoritePageAfter(userId, after.updatedAt(), after.id(), limit);
+        } else {
+            sessions = after == null
+                    ? sessionRepository.findFirstPage(userId, limit)
+                    : sessionRepository.findPageAfter(userId, after.updatedAt(), after.id(), limit);
+        }
+
+        boolean hasNext = sessions.size() > pageSize;
+        List<Session> page = hasNext ? sessions.subList(0, pageSize) : sessions;
+        String nextCursor = null;
+        if (hasNext) {
+            Session last = page.get(page.size() - 1);
+            nextCursor = new SessionCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+
+        List<SessionResponseDto> content = page.stream().map(sessionMapper::toResponseDto).toList();
+        return new CursorPageResponseDto<>(content, pageSize, nextCursor, hasNext);
+    }
+
     @Override
     @Transactional
     public SessionResponseDto createSession(UUID userId, SessionCreateDto sessionDto) {
@@ -72,10 +128,15 @@ public class SessionServiceImpl implements SessionService {
     }
 
     @Override
+    // Cache hits must not open a transaction and take a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public SessionResponseDto getSessionById(UUID id, UUID userId) {
         log.info("Getting session by ID: {} for user ID: {}", id, userId);
 
-        Session session = getSessionEntityByIdAndUserId(id, userId);
+        CachedSession session = sessionCache.get(id, this::loadSession);
+        if (session == null || !session.isOwnedBy(userId)) {
+            throw new ResourceNotFoundException("Session not found with id: " + id);
+        }
         return sessionMapper.toResponseDto(session);
     }
 
@@ -97,7 +158,8 @@ public class SessionServiceImpl implements SessionService {
         session.setUpdatedAt(OffsetDateTime.now());
         Session updatedSession = sessionRepository.save(session);
 
-        eventProducer.sendSessionUpdatedEvent(updatedSession.getId(), userId);
+        sessionCache.invalidateAfterCommit(List.of(id));
+        afterCommit(() -> eventProducer.sendSessionUpdatedEvent(updatedSession.getId(), userId));
 
         return sessionMapper.toResponseDto(updatedSession);
     }
@@ -110,28 +172,90 @@ public class SessionServiceImpl implements SessionService {
         Session session = getSessionEntityByIdAndUserId(id, userId);
         sessionRepository.delete(session);
 
-        eventProducer.sendSessionDeletedEvent(id, userId);
+        sessionCache.invalidateAfterCommit(List.of(id));
+        afterCommit(() -> eventProducer.sendSessionDeletedEvent(id, userId));
     }
 
     @Override
     @Transactional
-    public SessionResponseDto incrementMessageCount(UUID sessionId, OffsetDateTime timestamp) {
-        log.info("Incrementing message count for session ID: {}", sessionId);
+    public BulkOperationResponseDto deleteSessions(List<UUID> sessionIds, UUID userId) {
+        Set<UUID> requested = new LinkedHashSet<>(sessionIds);
+        log.info("Deleting {} sessions for user ID: {}", requested.size(), userId);
 
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session not found with id: " + sessionId));
+        List<UUID> deleted = sessionRepository.deleteAllByIdsAndUserId(userId, requested);
 
-        session.setMessageCount(session.getMessageCount() + 1);
-        session.setLastMessageAt(timestamp);
-        session.setUpdatedAt(OffsetDateTime.now());
+        sessionCache.invalidateAfterCommit(deleted);
+        afterCommit(() -> eventProducer.sendSessionDeletedEvents(deleted, userId));
 
-        Session updatedSession = sessionRepository.save(session);
-        return sessionMapper.toResponseDto(updatedSession);
+        return toBulkResponse(requested, deleted);
     }
 
     @Override
+    @Transactional
+    public BulkOperationResponseDto updateFavorites(List<UUID> sessionIds, UUID userId, boolean favorite) {
+        Set<UUID> requested = new LinkedHashSet<>(sessionIds);
+        log.info("Setting favorite={} on {} sessions for user ID: {}", favorite, requested.size(), userId);
+
+        List<UUID> updated = sessionRepository.updateFavoriteByIdsAndUserId(userId, requested, favorite);
+
+        sessionCache.invalidateAfterCommit(updated);
+        afterCommit(() -> eventProducer.sendSessionUpdatedEvents(updated, userId));
+
+        return toBulkResponse(requested, updated);
+    }
+
+    @Override
+    @Transactional
+    public int applyMessageCounts(Collection<MessageCountDelta> deltas) {
+        log.info("Applying message counts to {} sessions", deltas.size());
+
+        List<SessionOwner> updated = sessionRepository.applyMessageCountDeltas(deltas);
+        if (updated.size() < deltas.size()) {
+            log.warn("{} of {} sessions no longer exist; their message counts were skipped",
+                    deltas.size() - updated.size(), deltas.size());
+        }
+
+        // Other replicas and the gateway learn about the new counts from the UPDATED events
+        sessionCache.invalidateAfterCommit(updated.stream().map(SessionOwner::sessionId).toList());
+        afterCommit(() -> updated.forEach(owner ->
+                eventProducer.sendSessionUpdatedEvent(owner.sessionId(), owner.userId())));
+        return updated.size();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean existsSessionByIdAndUserId(UUID id, UUID userId) {
-        return sessionRepository.existsByIdAndUserId(id, userId);
+        CachedSession session = sessionCache.get(id, this::loadSession);
+        return session != null && session.isOwnedBy(userId);
+    }
+
+    private CachedSession loadSession(UUID id) {
+        return sessionRepository.findById(id)
+                .map(CachedSession::from)
+                .orElse(null);
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, so replicas that react to it
+     * cannot read the data as it was before
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static BulkOperationResponseDto toBulkResponse(Collection<UUID> requested, List<UUID> processed) {
+        Set<UUID> found = new HashSet<>(processed);
+        List<UUID> notFound = requested.stream().filter(id -> !found.contains(id)).toList();
+        return new BulkOperationResponseDto(processed, notFound);
     }
 
     private Session getSessionEntityByIdAndUserId(UUID id, UUID userId) {
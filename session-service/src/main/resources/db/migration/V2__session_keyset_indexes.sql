@@ -0,0 +1,15 @@
+-- Keyset pagination compares (updated_at, id), which needs updated_at to be present
+UPDATE sessions SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE sessions ALTER COLUMN updated_at SET NOT NULL;
+
+-- Serves a user's sessions in listing order, newest first, without a sort
+CREATE INDEX idx_sessions_user_updated_id ON sessions(user_id, updated_at DESC, id DESC);
+
+-- Favorites are a small subset, so they get their own, much smaller index
+CREATE INDEX idx_sessions_user_favorite_updated_id ON sessions(user_id, updated_at DESC, id DESC)
+    WHERE is_favorite;
+
+-- Superseded by the indexes above; the boolean index was never selective
+DROP INDEX IF EXISTS idx_sessions_user_id;
+DROP INDEX IF EXISTS idx_sessions_is_favorite;
+DROP INDEX IF EXISTS idx_sessions_updated_at;